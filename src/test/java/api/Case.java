@@ -0,0 +1,31 @@
+package api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明用例编号和所依赖的用例，由 {@link CaseScheduler#runAnnotated} 按依赖关系执行
+ * <pre>
+ * &#64;Case("login")
+ * public Map&lt;String, Object&gt; login() { ... return Map.of("token", token); }
+ *
+ * &#64;Case(value = "order", dependsOn = "login")
+ * public void order(Map&lt;String, Object&gt; variables) { ... variables.get("token") ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Case {
+
+    /**
+     * 用例编号，为空时使用方法名
+     */
+    String value() default "";
+
+    /**
+     * 所依赖的用例编号
+     */
+    String[] dependsOn() default {};
+}
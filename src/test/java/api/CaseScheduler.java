@@ -0,0 +1,363 @@
+package api;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 按依赖关系（有向无环图）调度用例
+ * 每个用例声明所依赖的用例编号，依赖的用例都通过后才执行；没有依赖关系的分支在执行器中并发执行。
+ * 依赖用例提取的变量（连同其从上游继承的变量）传给下游用例，多个依赖有同名变量时后声明的依赖优先。
+ * 依赖的用例未通过、被跳过或出错时，下游用例跳过（SKIPPED）。
+ * 可以依赖之后才提交的用例；全部提交后调用 {@link #seal()}，不存在的依赖和循环依赖以 ERROR 结束。
+ * <pre>
+ * CaseScheduler&lt;String&gt; scheduler = new CaseScheduler&lt;&gt;(executor);
+ * scheduler.submit("login", List.of(), vars -&gt; CaseScheduler.Outcome.passed(response, Map.of("token", token)));
+ * scheduler.submit("order", List.of("login"), vars -&gt; ... vars.get("token") ...);
+ * Map&lt;String, CaseScheduler.Outcome&lt;String&gt;&gt; outcomes = scheduler.runAll();
+ * </pre>
+ * @param <R> 用例执行结果的类型（如响应体）
+ */
+public final class CaseScheduler<R> {
+
+    private final Executor executor;
+    // 用例编号 -> 节点（含被引用但尚未提交的用例），按提交顺序排列
+    private final Map<String, Node<R>> nodes = new LinkedHashMap<>();
+    private boolean sealed;
+
+    /**
+     * @param executor 默认执行用例的执行器
+     */
+    public CaseScheduler(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 提交用例
+     * @param id 用例编号，为 null 或空时该用例不能被其它用例依赖
+     * @param dependsOn 所依赖的用例编号
+     * @param task 用例内容，参数为上游传下来的变量（只读）
+     * @return 用例结果，总是正常完成（异常转为 ERROR 结果）
+     */
+    public CompletableFuture<Outcome<R>> submit(String id, Collection<String> dependsOn, Task<R> task) {
+        return submit(id, dependsOn, task, executor);
+    }
+
+    /**
+     * 提交用例，在指定的执行器中执行（如按接口限制并发数的执行器）
+     * @param id 用例编号，为 null 或空时该用例不能被其它用例依赖
+     * @param dependsOn 所依赖的用例编号
+     * @param task 用例内容，参数为上游传下来的变量（只读）
+     * @param executor 执行该用例的执行器
+     * @return 用例结果，总是正常完成（异常转为 ERROR 结果）
+     */
+    public synchronized CompletableFuture<Outcome<R>> submit(String id, Collection<String> dependsOn, Task<R> task,
+                                                             Executor executor) {
+        if (sealed) {
+            throw new IllegalStateException("用例已全部提交，不能再提交: " + id);
+        }
+        boolean named = id != null && !id.isEmpty();
+        Node<R> node = named ? nodes.computeIfAbsent(id, Node::new) : new Node<>(id);
+        if (node.defined) {
+            throw new IllegalArgumentException("用例编号重复: " + id);
+        }
+        node.defined = true;
+        node.dependsOn = new ArrayList<>(dependsOn);
+
+        List<Node<R>> dependencies = new ArrayList<>(dependsOn.size());
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[dependsOn.size()];
+        for (String dependency : dependsOn) {
+            Node<R> dependencyNode = nodes.computeIfAbsent(dependency, Node::new);
+            futures[dependencies.size()] = dependencyNode.future;
+            dependencies.add(dependencyNode);
+        }
+
+        CompletableFuture.allOf(futures)
+                .handleAsync((ignored, error) -> run(node, dependencies, task), executor)
+                .whenComplete((outcome, error) -> node.future.complete(error != null
+                        ? Outcome.error(id, "ERROR: " + error.getMessage(), Collections.emptyMap())
+                        : outcome));
+        return node.future;
+    }
+
+    /**
+     * 是否已提交（不含只被引用、尚未提交的用例）
+     */
+    public synchronized boolean contains(String id) {
+        Node<R> node = nodes.get(id);
+        return node != null && node.defined;
+    }
+
+    /**
+     * 所有用例已提交：被引用但没有提交的用例以 "不存在" 结束，依赖它们的用例出错；
+     * 处于循环依赖中的用例以 ERROR 结束，下游用例跳过
+     */
+    public synchronized void seal() {
+        if (sealed) {
+            return;
+        }
+        sealed = true;
+        for (Node<R> node : nodes.values()) {
+            if (!node.defined) {
+                node.missing = true;
+                node.future.complete(Outcome.error(node.id, "ERROR: 用例 " + node.id + " 不存在", Collections.emptyMap()));
+            }
+        }
+
+        // 深度优先遍历，找到回边即为环；环上的用例永远等不到依赖完成，直接结束
+        Map<String, Integer> states = new HashMap<>();
+        for (Node<R> node : nodes.values()) {
+            findCycles(node, states, new ArrayList<>());
+        }
+    }
+
+    /**
+     * 提交完毕并等待所有用例完成
+     * @return 用例编号 -> 结果（按提交顺序，不含没有编号的用例）
+     */
+    public Map<String, Outcome<R>> runAll() {
+        seal();
+        List<Node<R>> defined = new ArrayList<>();
+        synchronized (this) {
+            for (Node<R> node : nodes.values()) {
+                if (node.defined) {
+                    defined.add(node);
+                }
+            }
+        }
+        Map<String, Outcome<R>> outcomes = new LinkedHashMap<>();
+        for (Node<R> node : defined) {
+            outcomes.put(node.id, node.future.join());
+        }
+        return outcomes;
+    }
+
+    /**
+     * 执行对象上所有标注了 {@link Case} 的方法
+     * 方法可以没有参数，或有一个 Map 参数接收上游传下来的变量；返回 Map 时作为提取的变量传给下游。
+     * 抛出 AssertionError 为失败（FAILED），其它异常为出错（ERROR）。
+     * @param instance 测试对象
+     * @param executor 执行器
+     * @return 用例编号 -> 结果
+     */
+    public static Map<String, Outcome<Object>> runAnnotated(Object instance, Executor executor) {
+        CaseScheduler<Object> scheduler = new CaseScheduler<>(executor);
+        List<Method> methods = new ArrayList<>();
+        for (Method method : instance.getClass().getMethods()) {
+            if (method.isAnnotationPresent(Case.class)) {
+                methods.add(method);
+            }
+        }
+        // 反射返回的方法顺序不固定，按方法名排序使结果顺序稳定
+        methods.sort(Comparator.comparing(Method::getName));
+
+        for (Method method : methods) {
+            Case annotation = method.getAnnotation(Case.class);
+            String id = annotation.value().isEmpty() ? method.getName() : annotation.value();
+            scheduler.submit(id, Arrays.asList(annotation.dependsOn()), variables -> invoke(instance, method, variables));
+        }
+        return scheduler.runAll();
+    }
+
+    private static Outcome<Object> invoke(Object instance, Method method, Map<String, Object> variables) throws Exception {
+        Object result;
+        try {
+            result = method.getParameterCount() == 0 ? method.invoke(instance) : method.invoke(instance, variables);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof AssertionError) {
+                return Outcome.failed(null, "FAIL: " + e.getCause().getMessage());
+            }
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        Map<String, Object> extracted = new LinkedHashMap<>();
+        if (result instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) result).entrySet()) {
+                extracted.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+        }
+        return Outcome.passed(result, extracted);
+    }
+
+    private Outcome<R> run(Node<R> node, List<Node<R>> dependencies, Task<R> task) {
+        Map<String, Object> inherited = new LinkedHashMap<>();
+        for (Node<R> dependency : dependencies) {
+            Outcome<R> outcome = dependency.future.join();
+            if (dependency.missing) {
+                return Outcome.error(node.id, "ERROR: 依赖的用例 " + dependency.id + " 不存在", inherited);
+            }
+            if (outcome.getStatus() != Status.PASSED) {
+                return Outcome.skipped(node.id, "SKIPPED: 依赖的用例 " + dependency.id + " " + describe(outcome.getStatus()), inherited);
+            }
+            inherited.putAll(outcome.getVariables());
+        }
+
+        try {
+            Outcome<R> outcome = task.run(Collections.unmodifiableMap(inherited));
+            Map<String, Object> variables = new LinkedHashMap<>(inherited);
+            variables.putAll(outcome.getVariables());
+            return new Outcome<>(node.id, outcome.getStatus(), outcome.getResult(), outcome.getMessage(), variables);
+        } catch (Exception e) {
+            return Outcome.error(node.id, "ERROR: " + e.getMessage(), inherited);
+        }
+    }
+
+    private static String describe(Status status) {
+        switch (status) {
+            case FAILED:
+                return "未通过";
+            case SKIPPED:
+                return "被跳过";
+            default:
+                return "出错";
+        }
+    }
+
+    /**
+     * @param states 0 或不存在：未访问，1：在当前路径上，2：已完成
+     */
+    private void findCycles(Node<R> node, Map<String, Integer> states, List<String> path) {
+        Integer state = states.get(node.id);
+        if (state != null && state == 2) {
+            return;
+        }
+        if (state != null && state == 1) {
+            List<String> cycle = new ArrayList<>(path.subList(path.indexOf(node.id), path.size()));
+            cycle.add(node.id);
+            String message = "ERROR: 循环依赖 " + String.join(" -> ", cycle);
+            for (String id : cycle) {
+                nodes.get(id).future.complete(Outcome.error(id, message, Collections.emptyMap()));
+            }
+            return;
+        }
+        states.put(node.id, 1);
+        path.add(node.id);
+        for (String dependency : node.dependsOn) {
+            findCycles(nodes.get(dependency), states, path);
+        }
+        path.remove(path.size() - 1);
+        states.put(node.id, 2);
+    }
+
+    /**
+     * 用例内容
+     */
+    @FunctionalInterface
+    public interface Task<R> {
+        /**
+         * @param variables 上游传下来的变量（只读）
+         * @return 执行结果，通过 {@link Outcome#passed} / {@link Outcome#failed} 创建
+         */
+        Outcome<R> run(Map<String, Object> variables) throws Exception;
+    }
+
+    /**
+     * 用例状态
+     */
+    public enum Status {
+        PASSED, FAILED, SKIPPED, ERROR
+    }
+
+    /**
+     * 用例结果
+     */
+    public static final class Outcome<R> {
+        private final String id;
+        private final Status status;
+        private final R result;
+        private final String message;
+        private final Map<String, Object> variables;
+
+        private Outcome(String id, Status status, R result, String message, Map<String, Object> variables) {
+            this.id = id;
+            this.status = status;
+            this.result = result;
+            this.message = message;
+            this.variables = Collections.unmodifiableMap(variables);
+        }
+
+        /**
+         * @param result 执行结果
+         * @param extracted 提取的变量，传给下游用例
+         */
+        public static <R> Outcome<R> passed(R result, Map<String, Object> extracted) {
+            return new Outcome<>(null, Status.PASSED, result, "PASS", extracted);
+        }
+
+        /**
+         * @param result 执行结果
+         * @param message 失败说明
+         */
+        public static <R> Outcome<R> failed(R result, String message) {
+            return new Outcome<>(null, Status.FAILED, result, message, Collections.emptyMap());
+        }
+
+        private static <R> Outcome<R> skipped(String id, String message, Map<String, Object> variables) {
+            return new Outcome<>(id, Status.SKIPPED, null, message, variables);
+        }
+
+        private static <R> Outcome<R> error(String id, String message, Map<String, Object> variables) {
+            return new Outcome<>(id, Status.ERROR, null, message, variables);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isPassed() {
+            return status == Status.PASSED;
+        }
+
+        /**
+         * @return 执行结果，跳过或出错时为 null
+         */
+        public R getResult() {
+            return result;
+        }
+
+        /**
+         * @return PASS、FAIL: ...、SKIPPED: ...、ERROR: ...
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * @return 执行后可用的变量（继承的变量加上本用例提取的变量）
+         */
+        public Map<String, Object> getVariables() {
+            return variables;
+        }
+
+        @Override
+        public String toString() {
+            return message + " (用例 " + id + ")";
+        }
+    }
+
+    private static final class Node<R> {
+        private final String id;
+        private final CompletableFuture<Outcome<R>> future = new CompletableFuture<>();
+        private List<String> dependsOn = Collections.emptyList();
+        private boolean defined;
+        // 被引用但直到 seal 都没有提交
+        private volatile boolean missing;
+
+        private Node(String id) {
+            this.id = id;
+        }
+    }
+}
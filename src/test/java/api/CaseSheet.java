@@ -0,0 +1,74 @@
+package api;
+
+import config.JsonComparator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 用例 Sheet 的公共读取规则，ExcelInterfaceTest 和 MappedCaseRunner 共用
+ * 包括可选列的表头名称、单元格读取、依赖编号拆分和失败说明的格式。
+ */
+final class CaseSheet {
+
+    /** 依赖列的表头名称（不区分大小写） */
+    static final String[] DEPENDS_COLUMN = {"依赖", "depends", "dependson"};
+    /** 提取列的表头名称（不区分大小写） */
+    static final String[] EXTRACT_COLUMN = {"提取", "extract"};
+
+    private CaseSheet() {
+    }
+
+    /**
+     * 按表头名称查找列（不区分大小写）
+     * @return 列号，不存在时返回 -1
+     */
+    static int findColumn(List<String> header, String... names) {
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            for (String candidate : names) {
+                if (candidate.equals(name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return 单元格文本，列号为 -1 或超出该行时返回空字符串
+     */
+    static String cellAt(List<String> cells, int column) {
+        return column >= 0 && column < cells.size() ? cells.get(column) : "";
+    }
+
+    /**
+     * 拆分依赖列中的用例编号（逗号、分号或空白分隔，支持中文标点）
+     */
+    static List<String> splitIds(String value) {
+        if (value.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> ids = new ArrayList<>();
+        for (String id : value.split("[,，;；\\s]+")) {
+            if (!id.isEmpty()) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 失败时再完整比对一次，把第一处差异写入执行结果
+     */
+    static String describeFailure(JsonComparator comparator, String actual, String expected) {
+        List<String> mismatches = comparator.diff(actual, expected);
+        if (mismatches.isEmpty()) {
+            return "FAIL";
+        }
+        String first = "FAIL: " + mismatches.get(0);
+        return mismatches.size() == 1 ? first : first + "（共 " + mismatches.size() + " 处差异）";
+    }
+}
@@ -1,13 +1,17 @@
 package api;
 
+import config.datafeomcsvtxt.DataFile;
+import config.datafeomcsvtxt.FileDataIterator;
 import org.testng.annotations.DataProvider;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /***
  * 数据驱动得示例
@@ -44,10 +48,33 @@ public class DataDrivenUtil {
      */
     @DataProvider(name = "largeData")
     public Iterator<Object[]> provideLargeData() {
-        List<Object[]> data = new ArrayList<>();
-        for (int i = 0; i < 1000; i++) {
-            data.add(new Object[]{"user" + i, "123456", 0, "success"});
-        }
-        return data.iterator();
+        // 每次取数时才生成一行，不预先构建整个列表
+        return new Iterator<Object[]>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < 1000;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return new Object[]{"user" + i++, "123456", 0, "success"};
+            }
+        };
+    }
+
+    /**
+     * 按测试方法上的 {@link DataFile} 注解逐行读取数据文件（百万行数据文件推荐）
+     * TestNG 消费一行才读取一行，参数通过 {@link config.datafeomcsvtxt.Column} 注解与列对应
+     * @param method 当前测试方法，由 TestNG 注入
+     * @return
+     */
+    @DataProvider(name = "fileData")
+    public Iterator<Object[]> provideFileData(Method method) {
+        return FileDataIterator.forMethod(method);
     }
 }
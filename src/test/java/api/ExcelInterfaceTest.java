@@ -1,112 +1,330 @@
 package api;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import base.util.StreamingExcelReader;
+import com.fasterxml.jackson.core.type.TypeReference;
+import config.CaseExecution;
+import config.CaseVariables;
+import config.HttpOkUtil;
+import config.JsonComparator;
+import config.JsonUtils;
+import config.PinningMonitor;
+
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
+/**
+ * Excel 驱动的接口用例执行器
+ * 请求参数 Sheet 列：0 用例编号，1 url，2 method，3 headers，4 params，5 body，
+ * 可选的 依赖 / depends 列填写所依赖用例的编号（多个用逗号分隔），
+ * 可选的 提取 / extract 列从响应中提取变量（如 token=$.data.token），供依赖它的用例以 ${token} 引用。
+ * 用例由 {@link CaseScheduler} 按依赖关系调度：没有依赖关系的用例在线程池中并发执行，
+ * 依赖其它用例的用例在被依赖用例通过后再执行，并在 url、headers、params、body 和预期值中替换变量；
+ * 结果按原行顺序写出。响应与预期值通过 {@link JsonComparator} 按 JSON 结构比对。
+ * 启用虚拟线程模式（{@link CaseExecution}）时每个用例一个虚拟线程，在途用例数由 execution.maxInFlight 限制。
+ */
 public class ExcelInterfaceTest {
-    
-    public void executeTest(String excelPath) throws IOException {
-        FileInputStream fis = new FileInputStream(excelPath);
-        Workbook workbook = new XSSFWorkbook(fis);
-        
-        // 获取各个sheet页
-        Sheet testCaseSheet = workbook.getSheetAt(0);  // 测试用例数据
-        Sheet requestSheet = workbook.getSheetAt(1);   // 请求参数
-        Sheet expectSheet = workbook.getSheetAt(2);    // 预期结果
-        
-        // 遍历请求参数sheet执行测试
-        for (int i = 1; i <= requestSheet.getLastRowNum(); i++) {
-            Row requestRow = requestSheet.getRow(i);
-            if (requestRow == null) continue;
-            
-            // 提取请求参数
-            String url = getCellValueAsString(requestRow.getCell(1));
-            String method = getCellValueAsString(requestRow.getCell(2));
-            String headers = getCellValueAsString(requestRow.getCell(3));
-            String params = getCellValueAsString(requestRow.getCell(4));
-            String body = getCellValueAsString(requestRow.getCell(5));
-            
-            try {
-                // 发送HTTP请求
-                String response = sendHttpRequest(url, method, headers, params, body);
-                
-                // 获取预期结果
-                Row expectRow = expectSheet.getRow(i);
-                String expectedResult = expectRow != null ? 
-                    getCellValueAsString(expectRow.getCell(1)) : "";
-                
-                // 比对结果
-                boolean isMatch = compareResult(response, expectedResult);
-                
-                // 标记结果
-                Cell resultCell = requestRow.createCell(6);
-                resultCell.setCellValue(response);
-                
-                Cell statusCell = requestRow.createCell(7);
-                statusCell.setCellValue(isMatch ? "PASS" : "FAIL");
-                
-                // 如果不一致，标红
-                if (!isMatch) {
-                    CellStyle redStyle = createRedStyle(workbook);
-                    resultCell.setCellStyle(redStyle);
-                    statusCell.setCellStyle(redStyle);
+
+    private static final int DEFAULT_PARALLELISM = 8;
+
+    private final int parallelism;
+    private final JsonComparator comparator;
+
+    public ExcelInterfaceTest() {
+        this(DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param parallelism 同时执行的用例数（虚拟线程模式下不限制线程数）
+     */
+    public ExcelInterfaceTest(int parallelism) {
+        this(parallelism, new JsonComparator());
+    }
+
+    /**
+     * @param parallelism 同时执行的用例数
+     * @param comparator 结果比对器（可配置忽略路径、数值容差等）
+     */
+    public ExcelInterfaceTest(int parallelism, JsonComparator comparator) {
+        this.parallelism = Math.max(1, parallelism);
+        this.comparator = comparator;
+    }
+
+    /**
+     * 执行用例并生成结果文件（原文件名加 _result）
+     * 用例文件通过 SAX 逐行读取，结果通过 SXSSF 窗口写出，内存占用与用例行数无关
+     * @param excelPath 用例文件路径
+     * @return 失败（含异常）的用例数
+     */
+    public int executeTest(String excelPath) throws Exception {
+        try (ExcelResultWriter writer = new ExcelResultWriter(excelPath.replace(".xlsx", "_result.xlsx"))) {
+            return execute(excelPath, writer);
+        }
+    }
+
+    /**
+     * 流式执行（只读，不生成结果文件）
+     * @param excelPath 用例文件路径
+     * @return 失败（含异常）的用例数
+     */
+    public int executeTestStreaming(String excelPath) throws Exception {
+        return execute(excelPath, null);
+    }
+
+    /**
+     * 把一行用例作为压测用例（见 {@link LoadTest}）：每次执行发送请求并比对预期值，不通过时抛出 AssertionError
+     * @param excelPath 用例文件路径
+     * @param caseId 用例编号
+     * @param variables 替换请求和预期值中 ${变量名} 的变量（如事先取得的 token）
+     * @return 压测用例
+     */
+    public LoadTest.Case loadCase(String excelPath, String caseId, Map<String, Object> variables) throws Exception {
+        List<String> row = new ArrayList<>();
+        int[] found = {-1};
+        int[] extractColumn = {-1};
+        String[] expected = {""};
+        try (StreamingExcelReader reader = StreamingExcelReader.open(excelPath)) {
+            reader.readSheet(1, (rowNum, cells) -> {
+                if (rowNum == 0) {
+                    extractColumn[0] = CaseSheet.findColumn(cells, CaseSheet.EXTRACT_COLUMN);
+                } else if (found[0] < 0 && caseId.equals(CaseSheet.cellAt(cells, 0).trim())) {
+                    found[0] = rowNum;
+                    row.addAll(cells);
                 }
-                
-            } catch (Exception e) {
-                // 异常处理
-                Cell errorCell = requestRow.createCell(7);
-                errorCell.setCellValue("ERROR: " + e.getMessage());
-                errorCell.setCellStyle(createRedStyle(workbook));
+            });
+            if (found[0] < 0) {
+                throw new IllegalArgumentException(excelPath + " 中没有用例 " + caseId);
             }
+            reader.readSheet(2, (rowNum, cells) -> {
+                if (rowNum == found[0]) {
+                    expected[0] = CaseSheet.cellAt(cells, 1);
+                }
+            });
         }
-        
-        // 保存结果
-        FileOutputStream fos = new FileOutputStream(excelPath.replace(".xlsx", "_result.xlsx"));
-        workbook.write(fos);
-        
-        fis.close();
-        fos.close();
-        workbook.close();
+
+        String extract = CaseSheet.cellAt(row, extractColumn[0]);
+        return () -> {
+            CaseScheduler.Outcome<String> outcome = runRow(row, expected[0], extract, variables);
+            if (!outcome.isPassed()) {
+                throw new AssertionError(outcome.getMessage());
+            }
+        };
     }
-    
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) return "";
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                return String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            default:
-                return "";
+
+    /**
+     * 逐行读取请求参数，提交到线程池执行，并按行顺序收集结果
+     * @param excelPath 用例文件路径
+     * @param writer 结果写出器，为 null 时只在控制台输出失败用例
+     * @return 失败（含异常）的用例数
+     */
+    @SuppressWarnings("try") // 固定监控只需在结束时关闭并输出汇总
+    private int execute(String excelPath, ExcelResultWriter writer) throws Exception {
+        ExecutorService executor = CaseExecution.newExecutor("excel-case", parallelism);
+        try (PinningMonitor ignored = CaseExecution.monitorPinning();
+             StreamingExcelReader reader = StreamingExcelReader.open(excelPath)) {
+            // 获取各个sheet页：0 测试用例数据，1 请求参数，2 预期结果
+            // 预期结果只保留第2列文本，按行号索引
+            Map<Integer, String> expectedByRow = new HashMap<>();
+            reader.readSheet(2, (rowNum, cells) -> {
+                if (rowNum > 0) {
+                    expectedByRow.put(rowNum, CaseSheet.cellAt(cells, 1));
+                }
+            });
+
+            // 已提交未写出的用例（按行顺序），数量超过上限时等待最早的用例完成，避免结果堆积
+            Deque<PendingRow> pending = new ArrayDeque<>();
+            int maxPending = CaseExecution.maxInFlight(parallelism * 4);
+            // 按依赖关系调度；逐行提交，依赖的用例必须位于当前用例之前，已提交的用例都能等到依赖完成
+            CaseScheduler<String> scheduler = new CaseScheduler<>(executor);
+            int[] dependsColumn = {-1};
+            int[] extractColumn = {-1};
+            int[] failed = {0};
+
+            // 遍历请求参数sheet执行测试
+            reader.readSheet(1, (rowNum, cells) -> {
+                if (rowNum == 0) {
+                    dependsColumn[0] = CaseSheet.findColumn(cells, CaseSheet.DEPENDS_COLUMN);
+                    extractColumn[0] = CaseSheet.findColumn(cells, CaseSheet.EXTRACT_COLUMN);
+                    if (writer != null) {
+                        writer.writeHeader(cells);
+                    }
+                    return; // 跳过表头
+                }
+
+                String caseId = CaseSheet.cellAt(cells, 0).trim();
+                String expected = expectedByRow.getOrDefault(rowNum, "");
+                String extract = CaseSheet.cellAt(cells, extractColumn[0]);
+                List<String> dependsOn = CaseSheet.splitIds(CaseSheet.cellAt(cells, dependsColumn[0]));
+                String blocked = null;
+                for (String dependency : dependsOn) {
+                    if (!scheduler.contains(dependency)) {
+                        blocked = "依赖的用例 " + dependency + " 不存在或位于当前用例之后";
+                        break;
+                    }
+                }
+                if (!caseId.isEmpty() && scheduler.contains(caseId)) {
+                    // 编号重复的用例照常执行，依赖该编号的用例以第一次出现的为准
+                    System.err.println("警告: 用例编号 " + caseId + " 重复（第 " + (rowNum + 1) + " 行）");
+                    caseId = "";
+                }
+
+                CompletableFuture<CaseScheduler.Outcome<String>> outcome;
+                if (blocked != null) {
+                    String message = blocked;
+                    outcome = scheduler.submit(null, Collections.emptyList(), variables -> {
+                        throw new IllegalStateException(message);
+                    });
+                } else {
+                    outcome = scheduler.submit(caseId, dependsOn, variables -> runRow(cells, expected, extract, variables));
+                }
+
+                pending.addLast(new PendingRow(rowNum, cells, outcome));
+                while (pending.size() > maxPending || (!pending.isEmpty() && pending.peekFirst().outcome.isDone())) {
+                    failed[0] += complete(pending.pollFirst(), writer);
+                }
+            });
+
+            while (!pending.isEmpty()) {
+                failed[0] += complete(pending.pollFirst(), writer);
+            }
+            return failed[0];
+        } finally {
+            executor.shutdownNow();
         }
     }
-    
-    private CellStyle createRedStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setFillForegroundColor(IndexedColors.RED.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        return style;
+
+    /**
+     * 执行一行用例
+     */
+    private CaseScheduler.Outcome<String> runRow(List<String> cells, String expected, String extract,
+                                                 Map<String, Object> variables) throws IOException {
+        // 提取请求参数，替换依赖用例传下来的变量
+        String url = CaseVariables.substitute(CaseSheet.cellAt(cells, 1), variables);
+        String method = CaseSheet.cellAt(cells, 2);
+        String headers = CaseVariables.substitute(CaseSheet.cellAt(cells, 3), variables);
+        String params = CaseVariables.substitute(CaseSheet.cellAt(cells, 4), variables);
+        String body = CaseVariables.substitute(CaseSheet.cellAt(cells, 5), variables);
+        expected = CaseVariables.substitute(expected, variables);
+
+        // 发送HTTP请求，异常由调度器记为 ERROR
+        String response = sendHttpRequest(url, method, headers, params, body);
+
+        // 比对结果
+        if (!compareResult(response, expected)) {
+            return CaseScheduler.Outcome.failed(response, CaseSheet.describeFailure(comparator, response, expected));
+        }
+        try {
+            return CaseScheduler.Outcome.passed(response, CaseVariables.extract(response, extract));
+        } catch (IllegalArgumentException e) {
+            return CaseScheduler.Outcome.failed(response, "FAIL: " + e.getMessage());
+        }
     }
-    
-    private String sendHttpRequest(String url, String method, String headers, 
-                                  String params, String body) {
-        // 实现HTTP请求逻辑
-        // 这里需要根据实际需求实现具体的HTTP请求
-        return "mock response"; // 示例返回值
+
+    /**
+     * 等待一行用例完成并写出结果
+     * @return 失败时返回 1，否则返回 0
+     */
+    private int complete(PendingRow row, ExcelResultWriter writer) throws IOException, InterruptedException {
+        CaseScheduler.Outcome<String> outcome;
+        try {
+            outcome = row.outcome.get();
+        } catch (ExecutionException e) {
+            outcome = CaseScheduler.Outcome.failed(null, "ERROR: " + e.getCause().getMessage());
+        }
+
+        String response = outcome.getResult();
+        if (writer != null) {
+            writer.writeResult(row.rowNum, row.cells, response, outcome.getMessage(), !outcome.isPassed());
+        } else if (!outcome.isPassed()) {
+            System.out.println(outcome.getMessage() + " (第 " + (row.rowNum + 1) + " 行): " + (response == null ? "" : response));
+        }
+        return outcome.isPassed() ? 0 : 1;
     }
-    
+
+    /**
+     * 根据 method 选择 HttpOkUtil 中对应的请求方法
+     * headers、params 支持 JSON 对象或 key=value 形式（多个用 & 或换行分隔）；
+     * POST/PUT 有 body 时按 JSON 发送，否则把 params 作为表单发送
+     */
+    @SuppressWarnings("try") // 请求头作用域只需在结束时关闭
+    private String sendHttpRequest(String url, String method, String headers,
+                                  String params, String body) throws IOException {
+        if (url.trim().isEmpty()) {
+            throw new IllegalArgumentException("请求地址为空");
+        }
+        Map<String, String> headerMap = parseKeyValues(headers);
+        Map<String, String> paramMap = parseKeyValues(params);
+        boolean hasBody = !body.trim().isEmpty();
+
+        try (HttpOkUtil.HeaderScope ignored = HttpOkUtil.headerScope(headerMap)) {
+            return CaseExecution.callTarget(url, () -> {
+                switch (method.trim().toUpperCase(Locale.ROOT)) {
+                    case "":
+                    case "GET":
+                        return HttpOkUtil.getQuery(url, paramMap);
+                    case "POST":
+                        return hasBody ? HttpOkUtil.postJson(url, body) : HttpOkUtil.postForm(url, paramMap);
+                    case "PUT":
+                        return hasBody ? HttpOkUtil.putJson(url, body) : HttpOkUtil.putForm(url, paramMap, null);
+                    default:
+                        throw new IllegalArgumentException("不支持的请求方法: " + method);
+                }
+            });
+        }
+    }
+
+    /**
+     * 解析 JSON 对象或 key=value / key:value 形式的键值对
+     */
+    private Map<String, String> parseKeyValues(String text) {
+        Map<String, String> result = new LinkedHashMap<>();
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return result;
+        }
+        if (trimmed.startsWith("{")) {
+            Map<String, Object> json = JsonUtils.fromJson(trimmed, new TypeReference<Map<String, Object>>() {});
+            for (Map.Entry<String, Object> entry : json.entrySet()) {
+                result.put(entry.getKey(), entry.getValue() == null ? "" : String.valueOf(entry.getValue()));
+            }
+            return result;
+        }
+        for (String pair : trimmed.split("[&\\n]")) {
+            int separator = pair.indexOf('=') >= 0 ? pair.indexOf('=') : pair.indexOf(':');
+            if (separator > 0) {
+                result.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+            }
+        }
+        return result;
+    }
+
     private boolean compareResult(String actual, String expected) {
-        // 实现结果比对逻辑
-        return actual.equals(expected);
+        // 只需判断是否通过，遇到第一处差异即返回
+        return comparator.matches(actual, expected);
+    }
+
+    /**
+     * 已提交、等待按顺序写出的用例
+     */
+    private static class PendingRow {
+        private final int rowNum;
+        private final List<String> cells;
+        private final CompletableFuture<CaseScheduler.Outcome<String>> outcome;
+
+        private PendingRow(int rowNum, List<String> cells, CompletableFuture<CaseScheduler.Outcome<String>> outcome) {
+            this.rowNum = rowNum;
+            this.cells = cells;
+            this.outcome = outcome;
+        }
     }
 }
@@ -0,0 +1,150 @@
+package api;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * 用例执行结果写出器
+ * 基于 SXSSFWorkbook 窗口写入：内存中只保留最近的若干行，其余行随写随刷到临时文件。
+ * 样式只创建一次；超长响应体截断后写入单元格，完整内容另存为文本文件。
+ * 行必须按行号递增的顺序写入。
+ */
+public class ExcelResultWriter implements AutoCloseable {
+
+    private static final int DEFAULT_WINDOW_SIZE = 200;
+    // 单元格最多 32767 个字符，留出说明文字的空间
+    private static final int DEFAULT_MAX_CELL_LENGTH = 8000;
+
+    private final String resultPath;
+    private final Path responseDir;
+    private final int maxCellLength;
+    private final SXSSFWorkbook workbook;
+    private final Sheet sheet;
+    private final CellStyle redStyle;
+    // 响应结果所在列，执行结果在其后一列；默认与原用例文件一致（第7、8列），请求参数列更多时顺延
+    private int resultColumn = 6;
+    private int lastRowNum = -1;
+
+    /**
+     * @param resultPath 结果文件路径
+     */
+    public ExcelResultWriter(String resultPath) {
+        this(resultPath, DEFAULT_WINDOW_SIZE, DEFAULT_MAX_CELL_LENGTH);
+    }
+
+    /**
+     * @param resultPath 结果文件路径
+     * @param windowSize 内存中保留的行数
+     * @param maxCellLength 响应体写入单元格的最大长度，超出部分另存为文件
+     */
+    public ExcelResultWriter(String resultPath, int windowSize, int maxCellLength) {
+        this.resultPath = resultPath;
+        this.responseDir = Paths.get(resultPath.replace(".xlsx", "_responses"));
+        this.maxCellLength = maxCellLength;
+        this.workbook = new SXSSFWorkbook(windowSize);
+        this.workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet("执行结果");
+        this.redStyle = createRedStyle(workbook);
+    }
+
+    /**
+     * 写入表头：请求参数表头 + 响应结果 + 执行结果
+     * @param requestHeader 请求参数 Sheet 的表头
+     */
+    public void writeHeader(List<String> requestHeader) {
+        resultColumn = Math.max(resultColumn, requestHeader.size());
+        Row row = nextRow(0);
+        writeCells(row, requestHeader);
+        row.createCell(resultColumn).setCellValue("响应结果");
+        row.createCell(resultColumn + 1).setCellValue("执行结果");
+    }
+
+    /**
+     * 写入一条用例的执行结果
+     * @param rowNum 行号（从 0 开始，与请求参数 Sheet 一致）
+     * @param requestCells 请求参数行
+     * @param response 响应体，异常时为 null
+     * @param status PASS / FAIL / ERROR: ...
+     * @param failed 是否标红
+     */
+    public void writeResult(int rowNum, List<String> requestCells, String response, String status, boolean failed) throws IOException {
+        Row row = nextRow(rowNum);
+        writeCells(row, requestCells);
+
+        Cell statusCell = row.createCell(resultColumn + 1);
+        statusCell.setCellValue(status);
+
+        Cell resultCell = null;
+        if (response != null) {
+            resultCell = row.createCell(resultColumn);
+            resultCell.setCellValue(fitCell(rowNum, response));
+        }
+
+        // 如果不一致，标红
+        if (failed) {
+            statusCell.setCellStyle(redStyle);
+            if (resultCell != null) {
+                resultCell.setCellStyle(redStyle);
+            }
+        }
+    }
+
+    /**
+     * 保存结果文件并清理临时文件
+     */
+    @Override
+    public void close() throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(resultPath)) {
+            workbook.write(fos);
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private Row nextRow(int rowNum) {
+        if (rowNum <= lastRowNum) {
+            throw new IllegalStateException("结果行必须按行号递增写入: " + rowNum + " <= " + lastRowNum);
+        }
+        lastRowNum = rowNum;
+        return sheet.createRow(rowNum);
+    }
+
+    private void writeCells(Row row, List<String> cells) {
+        int count = Math.min(cells.size(), resultColumn);
+        for (int i = 0; i < count; i++) {
+            row.createCell(i).setCellValue(cells.get(i));
+        }
+    }
+
+    /**
+     * 超长响应体截断写入单元格，完整内容另存为文件
+     */
+    private String fitCell(int rowNum, String response) throws IOException {
+        if (response.length() <= maxCellLength) {
+            return response;
+        }
+        Files.createDirectories(responseDir);
+        Path file = responseDir.resolve("row_" + (rowNum + 1) + ".txt");
+        Files.write(file, response.getBytes(StandardCharsets.UTF_8));
+        return response.substring(0, maxCellLength) + "...（已截断，完整响应: " + file + "）";
+    }
+
+    private CellStyle createRedStyle(Workbook workbook) {
+        CellStyle style = workbook.createCellStyle();
+        style.setFillForegroundColor(IndexedColors.RED.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        style.setBorderBottom(BorderStyle.THIN);
+        style.setBorderTop(BorderStyle.THIN);
+        style.setBorderRight(BorderStyle.THIN);
+        style.setBorderLeft(BorderStyle.THIN);
+        return style;
+    }
+}
@@ -0,0 +1,30 @@
+package api;
+
+import config.HttpMetrics;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 套件结束时写出 HttpOkUtil 的请求指标
+ * 输出 target/http-metrics/http-metrics.json 和 Prometheus 文本格式的 http-metrics.prom，
+ * 在 testng.xml 的 listeners 中注册。
+ */
+public class HttpMetricsListener implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        HttpMetrics metrics = HttpMetrics.get();
+        if (metrics.getEndpoints().isEmpty()) {
+            return;
+        }
+        try {
+            Path file = metrics.write();
+            System.out.println("HTTP 请求指标已写出: " + file.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("写出 HTTP 请求指标失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package api;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 限制并发数的执行器
+ * 任务交给共享的执行器执行，但同时执行的任务不超过上限；超出上限的任务在队列中等待，不占用共享执行器的线程。
+ */
+final class LimitedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final int limit;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * @param delegate 共享的执行器
+     * @param limit 同时执行的任务数上限
+     */
+    LimitedExecutor(Executor delegate, int limit) {
+        this.delegate = delegate;
+        this.limit = Math.max(1, limit);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queue.add(task);
+        drain();
+    }
+
+    /**
+     * 在上限内把队列中的任务交给共享执行器；每个任务结束时再次调用，保证队列中的任务不会被遗漏
+     */
+    private void drain() {
+        while (!queue.isEmpty()) {
+            int current = running.get();
+            if (current >= limit) {
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable task = queue.poll();
+            if (task == null) {
+                running.decrementAndGet();
+                continue;
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        running.decrementAndGet();
+                        drain();
+                    }
+                });
+            } catch (RuntimeException e) {
+                running.decrementAndGet();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package api;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import config.LatencyHistogram;
+import io.qameta.allure.Allure;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一次压测的结果：请求数、错误率、吞吐量和延迟分位数（毫秒）
+ * 可以输出为 JSON（{@link #toJson()}、{@link #write}）或作为 Allure 附件（{@link #attach()}）。
+ */
+public final class LoadReport {
+
+    private static final String REPORT_DIRECTORY = "target/load-reports";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final String name;
+    private final String model;
+    private final double target;
+    private final long elapsedNanos;
+    private final LatencyHistogram latency;
+    private final LatencyHistogram errorLatency;
+    private final long dropped;
+    private final Map<String, Long> errors = new LinkedHashMap<>();
+
+    LoadReport(String name, String model, double target, long elapsedNanos, LatencyHistogram latency,
+               LatencyHistogram errorLatency, long dropped, Map<String, AtomicLong> errors) {
+        this.name = name;
+        this.model = model;
+        this.target = target;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+        this.errorLatency = errorLatency;
+        this.dropped = dropped;
+        errors.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()))
+                .forEach(entry -> this.errors.put(entry.getKey(), entry.getValue().get()));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return open（开环）或 closed（闭环）
+     */
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * @return 完成的请求数（含错误）
+     */
+    public long getRequests() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errorLatency.getCount();
+    }
+
+    /**
+     * @return 开环模型下因在途请求达到上限而没有发出的请求数
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return 错误率（错误数 / (完成数 + 丢弃数)），没有请求时为 0
+     */
+    public double getErrorRate() {
+        long total = getRequests() + dropped;
+        return total == 0 ? 0 : (double) (getErrors() + dropped) / total;
+    }
+
+    /**
+     * @return 每秒完成的请求数
+     */
+    public double getThroughput() {
+        return getRequests() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @param percentile 百分位，如 99.9
+     * @return 延迟（毫秒）
+     */
+    public double getLatencyMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * @return 延迟直方图（微秒）
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return 错误说明 -> 次数（按次数降序，最多 20 种）
+     */
+    public Map<String, Long> getErrorMessages() {
+        return errors;
+    }
+
+    public String toJson() {
+        ObjectNode root = JsonNodeFactory.instance.objectNode();
+        root.put("name", name);
+        root.put("model", model);
+        if ("open".equals(model)) {
+            root.put("targetRps", target);
+        } else {
+            root.put("concurrency", (int) target);
+        }
+        root.put("durationSeconds", round(elapsedNanos / 1e9));
+        root.put("requests", getRequests());
+        root.put("errors", getErrors());
+        root.put("dropped", dropped);
+        root.put("errorRate", round(getErrorRate()));
+        root.put("throughputRps", round(getThroughput()));
+
+        ObjectNode latencyNode = root.putObject("latencyMillis");
+        latencyNode.put("min", latency.getMin() / 1000.0);
+        latencyNode.put("mean", round(latency.getMean() / 1000.0));
+        for (double percentile : PERCENTILES) {
+            latencyNode.put(percentileName(percentile), getLatencyMillis(percentile));
+        }
+        latencyNode.put("max", latency.getMax() / 1000.0);
+
+        ObjectNode errorNode = root.putObject("errorMessages");
+        errors.forEach(errorNode::put);
+        return root.toPrettyString();
+    }
+
+    /**
+     * 写出 JSON 结果到 target/load-reports/{name}.json
+     * @return 结果文件
+     */
+    public Path write() throws IOException {
+        return write(Paths.get(REPORT_DIRECTORY));
+    }
+
+    /**
+     * 写出 JSON 结果
+     * @param directory 目录，不存在时创建
+     * @return 结果文件
+     */
+    public Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(name.replaceAll("[\\\\/:*?\"<>|\\s]", "_") + ".json");
+        Files.write(file, toJson().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * 作为 Allure 附件添加到当前测试（JSON 结果和文本摘要）
+     */
+    public void attach() {
+        Allure.addAttachment(name + " 压测结果", "application/json", toJson(), ".json");
+        Allure.addAttachment(name + " 压测摘要", "text/plain", toString(), ".txt");
+    }
+
+    private static String percentileName(double percentile) {
+        // 50 -> p50，99.9 -> p999
+        return "p" + (percentile == Math.rint(percentile)
+                ? String.valueOf((long) percentile)
+                : String.valueOf(percentile).replace(".", ""));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(name).append("（").append("open".equals(model) ? "开环 " + target + " 次/秒" : "闭环 " + (int) target + " 并发")
+                .append("）：").append(getRequests()).append(" 次请求，错误 ").append(getErrors())
+                .append("，丢弃 ").append(dropped)
+                .append(String.format("，错误率 %.2f%%，吞吐量 %.1f 次/秒", getErrorRate() * 100, getThroughput()))
+                .append(String.format("，延迟 p50 %.1f ms / p99 %.1f ms / p999 %.1f ms / max %.1f ms",
+                        getLatencyMillis(50), getLatencyMillis(99), getLatencyMillis(99.9), latency.getMax() / 1000.0));
+        errors.forEach((message, count) -> text.append("\n  ").append(count).append(" 次 ").append(message));
+        return text.toString();
+    }
+}
@@ -0,0 +1,253 @@
+package api;
+
+import config.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 压测模式：在固定时长内重复执行已有的用例，统计延迟分布、错误率和吞吐量
+ * 两种负载模型：
+ * 闭环（{@link #closed}）：固定数量的虚拟用户，每个用户上一个请求完成后立即发下一个；
+ * 开环（{@link #open}）：按目标速率（每秒请求数）发出请求，不等待之前的请求完成，
+ * 延迟从计划发出的时间算起（不受发送端排队影响），在途请求达到上限时该次请求记为丢弃。
+ * 结束时间之前开始的请求都会等待完成并计入结果，吞吐量按实际结束时间（最后一个请求完成）计算。
+ * 用例可以是任意代码（如 LoginAPI、HttpOkUtil 调用），也可以是 Excel 中的用例，
+ * 见 {@link ExcelInterfaceTest#loadCase} 和 {@link MappedCaseRunner#loadCase}；用例抛出异常（含断言失败）记为错误。
+ * <pre>
+ * LoadReport report = LoadTest.open(200, Duration.ofSeconds(30)).name("登录")
+ *         .run(() -&gt; HttpOkUtil.postJson(url, body));
+ * report.attach();
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+    private static final int MAX_ERROR_KINDS = 20;
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+    private final boolean openModel;
+    private final double rate;
+    private final int concurrency;
+    private final Duration duration;
+    private String name = "load";
+    private Duration warmup = Duration.ZERO;
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+    private LoadTest(boolean openModel, double rate, int concurrency, Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("压测时长必须大于 0");
+        }
+        this.openModel = openModel;
+        this.rate = rate;
+        this.concurrency = concurrency;
+        this.duration = duration;
+    }
+
+    /**
+     * 开环模型：按固定速率发出请求
+     * @param requestsPerSecond 目标每秒请求数
+     * @param duration 压测时长（不含预热）
+     */
+    public static LoadTest open(double requestsPerSecond, Duration duration) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("目标速率必须大于 0");
+        }
+        return new LoadTest(true, requestsPerSecond, 0, duration);
+    }
+
+    /**
+     * 闭环模型：固定数量的虚拟用户循环执行
+     * @param concurrency 虚拟用户数
+     * @param duration 压测时长（不含预热）
+     */
+    public static LoadTest closed(int concurrency, Duration duration) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("并发数必须大于 0");
+        }
+        return new LoadTest(false, 0, concurrency, duration);
+    }
+
+    /**
+     * @param name 压测名称，用于报告和附件名
+     */
+    public LoadTest name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * @param warmup 预热时长，期间的请求照常执行但不统计
+     */
+    public LoadTest warmup(Duration warmup) {
+        this.warmup = warmup;
+        return this;
+    }
+
+    /**
+     * @param maxInFlight 开环模型下同时在途的请求数上限
+     */
+    public LoadTest maxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        return this;
+    }
+
+    /**
+     * 执行压测
+     * @param loadCase 被重复执行的用例
+     * @return 压测结果
+     */
+    public LoadReport run(Case loadCase) throws InterruptedException {
+        Recorder recorder = new Recorder();
+        long warmupNanos = warmup.toNanos();
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long deadline = measureFrom + duration.toNanos();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            if (openModel) {
+                runOpen(loadCase, recorder, executor, start, measureFrom, deadline);
+            } else {
+                runClosed(loadCase, recorder, executor, measureFrom, deadline);
+            }
+        } finally {
+            executor.shutdown();
+            // 等待在途请求结束，最多再等一个压测时长；仍未结束的请求被中断，之后完成的不再计入
+            if (!executor.awaitTermination(Math.max(duration.toMillis(), 1000), TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+                if (!executor.awaitTermination(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    System.err.println("压测 " + name + " 结束时仍有请求未完成，结果不包含这些请求");
+                }
+            }
+            recorder.stop();
+        }
+        // 截止时间之前开始的请求可能在截止之后才完成，按最后一个请求的完成时间计算时长
+        long elapsed = Math.max(1, Math.max(deadline, recorder.lastEnd.get()) - measureFrom);
+        return new LoadReport(name, openModel ? "open" : "closed", openModel ? rate : concurrency,
+                elapsed, copyOf(recorder.histogram), copyOf(recorder.errorHistogram), recorder.dropped.get(),
+                recorder.errors);
+    }
+
+    private static LatencyHistogram copyOf(LatencyHistogram histogram) {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(histogram);
+        return copy;
+    }
+
+    /**
+     * 开环：第 i 个请求计划在 start + i / rate 秒发出，由一个调度线程按计划发出，各自在虚拟线程中执行
+     */
+    private void runOpen(Case loadCase, Recorder recorder, ExecutorService executor,
+                         long start, long measureFrom, long deadline) {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= deadline) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    recorder.dropped.incrementAndGet();
+                }
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    recorder.call(loadCase, intended, measured);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * 闭环：每个虚拟用户循环执行到结束时间
+     */
+    private void runClosed(Case loadCase, Recorder recorder, ExecutorService executor,
+                           long measureFrom, long deadline) throws InterruptedException {
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                long begin;
+                while ((begin = System.nanoTime()) < deadline && !Thread.currentThread().isInterrupted()) {
+                    recorder.call(loadCase, begin, begin >= measureFrom);
+                }
+            });
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    /**
+     * 被压测的用例
+     */
+    @FunctionalInterface
+    public interface Case {
+        /**
+         * 执行一次，抛出异常（含断言失败）记为错误
+         */
+        void call() throws Exception;
+    }
+
+    /**
+     * 汇总各线程的结果；直方图和计数都是无锁的
+     */
+    private static final class Recorder {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LatencyHistogram errorHistogram = new LatencyHistogram();
+        private final AtomicLong dropped = new AtomicLong();
+        // 最后一个计入结果的请求的完成时间
+        private final AtomicLong lastEnd = new AtomicLong();
+        // 压测结束后仍在执行的请求不再计入
+        private volatile boolean stopped;
+        // 错误说明 -> 次数，只保留前 MAX_ERROR_KINDS 种
+        private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+        private void call(Case loadCase, long startNanos, boolean measured) {
+            Throwable failure = null;
+            try {
+                loadCase.call();
+            } catch (Exception | AssertionError e) {
+                failure = e;
+            }
+            if (!measured || stopped) {
+                return;
+            }
+            long end = System.nanoTime();
+            long elapsed = end - startNanos;
+            lastEnd.accumulateAndGet(end, Math::max);
+            histogram.recordNanos(elapsed);
+            if (failure != null) {
+                errorHistogram.recordNanos(elapsed);
+                String message = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+                AtomicLong count = errors.get(message);
+                if (count == null && errors.size() < MAX_ERROR_KINDS) {
+                    count = errors.computeIfAbsent(message, key -> new AtomicLong());
+                }
+                if (count != null) {
+                    count.incrementAndGet();
+                }
+            }
+        }
+
+        private void stop() {
+            stopped = true;
+        }
+    }
+}
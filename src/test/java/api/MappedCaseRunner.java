@@ -0,0 +1,504 @@
+package api;
+
+import base.util.DataPreparationExecutor;
+import base.util.StreamingExcelReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import config.ApiMapping;
+import config.CaseExecution;
+import config.CaseVariables;
+import config.ConfigLoader;
+import config.HttpOkUtil;
+import config.JsonComparator;
+import config.JsonUtils;
+import config.PinningMonitor;
+import okhttp3.HttpUrl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * 按 config/api-mapping.yml 执行用例文件
+ * 加载一次映射，在 ClassPath（data/ 目录或根目录）中查找所有映射的用例文件，
+ * 把所有文件的用例提交到同一个线程池并发执行；同一接口（方法 + 地址）的用例共用一个并发上限，
+ * 上限取映射中的 concurrency（同一接口的各文件须一致，见 {@link ApiMapping}），未配置时使用默认值。新增用例文件只需在映射中增加一项。
+ * <p>
+ * 用例文件格式（与 模板.xlsx 一致）：
+ * "入参字段" Sheet 第 1 列为用例编号、第 2 列为用例名称，其后每列为一个请求参数（表头为参数名）；
+ * "响应预期值" Sheet 第 1 列为用例编号，其后每列为响应中的一个顶层字段（表头为字段名）；
+ * 表头也可以是以 $ 开头的 JSONPath，此时其它列名按对应顶层字段的 JSONPath 比对。
+ * 单元格内容为合法 JSON（数字、true/false、null、对象、数组）时按 JSON 值发送和比对，否则按字符串；
+ * 空的参数单元格按 null 发送，空的预期值单元格不比对。
+ * "入参字段" Sheet 可以有 依赖 列（所依赖的用例编号，多个用逗号分隔，其它文件的用例写作 文件名#用例编号）
+ * 和 提取 列（如 token=$.data.token），这两列不作为请求参数；用例由 {@link CaseScheduler} 按依赖关系调度，
+ * 依赖的用例通过后再执行，并在参数和预期值中替换 ${变量名}。依赖可以指向之后的行或文件。
+ * GET 请求参数作为查询参数发送，POST/PUT 作为 JSON 请求体发送；请求地址由 test.properties 中的 base.url 与映射中的 url、protocol 组成。
+ * 启用虚拟线程模式（{@link CaseExecution}）时每个用例一个虚拟线程，未配置 concurrency 的接口上限为 execution.maxPerTarget。
+ */
+public class MappedCaseRunner {
+
+    private static final int DEFAULT_THREADS = 32;
+    private static final int DEFAULT_ENDPOINT_CONCURRENCY = 8;
+    private static final String[] SEARCH_DIRECTORIES = {"data/", ""};
+    private static final String REQUEST_SHEET = "入参字段";
+    private static final String EXPECTED_SHEET = "响应预期值";
+
+    private final int threads;
+    private final int endpointConcurrency;
+    private final String baseUrl;
+    private final JsonComparator comparator;
+
+    public MappedCaseRunner() {
+        this(DEFAULT_THREADS,
+                CaseExecution.isVirtualThreads() ? CaseExecution.getMaxPerTarget() : DEFAULT_ENDPOINT_CONCURRENCY,
+                "test", new JsonComparator().allowExtraFields(true));
+    }
+
+    /**
+     * @param threads 共享线程池的线程数（所有用例文件共用，虚拟线程模式下不限制）
+     * @param endpointConcurrency 映射中未配置 concurrency 时，单个接口同时执行的用例数
+     * @param env 环境名称，读取 config/{env}.properties 中的 base.url
+     * @param comparator 结果比对器
+     */
+    public MappedCaseRunner(int threads, int endpointConcurrency, String env, JsonComparator comparator) {
+        this.threads = Math.max(1, threads);
+        this.endpointConcurrency = Math.max(1, endpointConcurrency);
+        this.baseUrl = new ConfigLoader(env).getProperty("base.url");
+        this.comparator = comparator;
+    }
+
+    /**
+     * 执行映射中的所有用例文件，ClassPath 中不存在的文件跳过
+     * @return 各用例文件的执行结果（按映射中的顺序）
+     */
+    public List<WorkbookResult> runAll() throws Exception {
+        return run(ApiMapping.get().getEndpoints());
+    }
+
+    /**
+     * 执行指定的用例文件
+     * @param endpoints 用例文件的映射
+     * @return 各用例文件的执行结果，ClassPath 中不存在的文件没有结果
+     */
+    @SuppressWarnings("try") // 固定监控只需在结束时关闭并输出汇总
+    public List<WorkbookResult> run(List<ApiMapping.Endpoint> endpoints) throws Exception {
+        ExecutorService executor = CaseExecution.newExecutor("mapped-case", threads);
+        try (PinningMonitor ignored = CaseExecution.monitorPinning()) {
+            Map<String, Integer> limits = endpointLimits(endpoints);
+            Map<String, LimitedExecutor> limiters = new HashMap<>();
+            // 所有用例文件共用一个调度器，用例可以依赖其它文件的用例
+            CaseScheduler<String> scheduler = new CaseScheduler<>(executor);
+            Map<ApiMapping.Endpoint, List<CompletableFuture<CaseResult>>> submitted = new LinkedHashMap<>();
+            for (ApiMapping.Endpoint endpoint : endpoints) {
+                String resource = locate(endpoint.getFileName());
+                if (resource == null) {
+                    System.out.println("跳过 " + endpoint.getFileName() + "：ClassPath 中没有该用例文件");
+                    continue;
+                }
+                LimitedExecutor limiter = limiters.computeIfAbsent(endpoint.getEndpointKey(),
+                        key -> new LimitedExecutor(executor, limits.getOrDefault(key, endpointConcurrency)));
+                submitted.put(endpoint, submit(endpoint, resource, scheduler, limiter));
+            }
+            scheduler.seal();
+
+            List<WorkbookResult> results = new ArrayList<>();
+            for (Map.Entry<ApiMapping.Endpoint, List<CompletableFuture<CaseResult>>> entry : submitted.entrySet()) {
+                List<CaseResult> cases = new ArrayList<>();
+                for (CompletableFuture<CaseResult> future : entry.getValue()) {
+                    cases.add(future.join());
+                }
+                WorkbookResult result = new WorkbookResult(entry.getKey(), cases);
+                result.print();
+                results.add(result);
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 各接口配置的并发上限；同一接口的多个用例文件配置了不同的 concurrency 时直接报错
+     */
+    private static Map<String, Integer> endpointLimits(List<ApiMapping.Endpoint> endpoints) {
+        Map<String, ApiMapping.Endpoint> configured = new HashMap<>();
+        Map<String, Integer> limits = new HashMap<>();
+        for (ApiMapping.Endpoint endpoint : endpoints) {
+            if (endpoint.getConcurrency() <= 0) {
+                continue;
+            }
+            ApiMapping.Endpoint first = configured.putIfAbsent(endpoint.getEndpointKey(), endpoint);
+            if (first != null && first.getConcurrency() != endpoint.getConcurrency()) {
+                throw new IllegalArgumentException("config/api-mapping.yml 中 " + first.getFileName() + " 和 "
+                        + endpoint.getFileName() + " 是同一接口 " + endpoint.getEndpointKey()
+                        + "，concurrency 不一致: " + first.getConcurrency() + " / " + endpoint.getConcurrency());
+            }
+            limits.put(endpoint.getEndpointKey(), endpoint.getConcurrency());
+        }
+        return limits;
+    }
+
+    /**
+     * 读取一个用例文件并提交所有用例
+     */
+    private List<CompletableFuture<CaseResult>> submit(ApiMapping.Endpoint endpoint, String resource,
+                                                       CaseScheduler<String> scheduler, LimitedExecutor limiter) throws Exception {
+        if (endpoint.isPrepare()) {
+            new DataPreparationExecutor().executeDataPreparationFromClasspath(resource);
+        }
+
+        String url = resolveUrl(endpoint);
+        List<CompletableFuture<CaseResult>> futures = new ArrayList<>();
+        readCases(endpoint, resource, row -> {
+            String id = row.caseId.isEmpty() ? null : qualify(endpoint, row.caseId);
+            if (id != null && scheduler.contains(id)) {
+                // 编号重复的用例照常执行，依赖该编号的用例以第一次出现的为准
+                System.err.println("警告: " + endpoint.getFileName() + " 中用例编号 " + row.caseId + " 重复");
+                id = null;
+            }
+            futures.add(scheduler.submit(id, row.dependsOn,
+                            variables -> runCase(endpoint, url, row.params, row.expected, row.extract, variables), limiter)
+                    .thenApply(outcome -> new CaseResult(row.caseId, row.caseName, outcome.getResult(),
+                            outcome.getMessage(), outcome.isPassed())));
+        });
+        return futures;
+    }
+
+    /**
+     * 把映射中的一条用例作为压测用例（见 {@link LoadTest}）：每次执行发送请求并比对预期值，不通过时抛出 AssertionError
+     * @param fileName 用例文件名（映射中的键）
+     * @param caseId 用例编号
+     * @param variables 替换参数和预期值中 ${变量名} 的变量（如事先取得的 token）
+     * @return 压测用例
+     */
+    public LoadTest.Case loadCase(String fileName, String caseId, Map<String, Object> variables) throws Exception {
+        ApiMapping.Endpoint endpoint = ApiMapping.get().getEndpoint(fileName);
+        if (endpoint == null) {
+            throw new IllegalArgumentException("config/api-mapping.yml 中没有 " + fileName);
+        }
+        String resource = locate(fileName);
+        if (resource == null) {
+            throw new IllegalArgumentException("ClassPath 中没有用例文件 " + fileName);
+        }
+        String url = resolveUrl(endpoint);
+        List<CaseRow> found = new ArrayList<>();
+        readCases(endpoint, resource, row -> {
+            if (found.isEmpty() && caseId.equals(row.caseId)) {
+                found.add(row);
+            }
+        });
+        if (found.isEmpty()) {
+            throw new IllegalArgumentException(fileName + " 中没有用例 " + caseId);
+        }
+        CaseRow row = found.get(0);
+        return () -> {
+            CaseScheduler.Outcome<String> outcome = runCase(endpoint, url, row.params, row.expected, row.extract, variables);
+            if (!outcome.isPassed()) {
+                throw new AssertionError(outcome.getMessage());
+            }
+        };
+    }
+
+    /**
+     * 逐行读取用例文件中的用例
+     */
+    private void readCases(ApiMapping.Endpoint endpoint, String resource, Consumer<CaseRow> consumer) throws Exception {
+        try (InputStream input = MappedCaseRunner.class.getClassLoader().getResourceAsStream(resource);
+             StreamingExcelReader reader = StreamingExcelReader.open(input)) {
+            Map<String, Map<String, String>> expectedByCase = readExpected(reader);
+
+            List<String> header = new ArrayList<>();
+            int[] dependsColumn = {-1};
+            int[] extractColumn = {-1};
+            StreamingExcelReader.SheetRowHandler handler = (rowNum, cells) -> {
+                if (header.isEmpty()) {
+                    header.addAll(cells);
+                    dependsColumn[0] = CaseSheet.findColumn(header, CaseSheet.DEPENDS_COLUMN);
+                    extractColumn[0] = CaseSheet.findColumn(header, CaseSheet.EXTRACT_COLUMN);
+                    return;
+                }
+                String caseId = CaseSheet.cellAt(cells, 0).trim();
+                Map<String, String> params = new LinkedHashMap<>();
+                for (int i = 2; i < header.size(); i++) {
+                    String name = header.get(i).trim();
+                    if (!name.isEmpty() && i != dependsColumn[0] && i != extractColumn[0]) {
+                        // 没有值的参数为 null
+                        String value = CaseSheet.cellAt(cells, i).trim();
+                        params.put(name, value.isEmpty() ? null : value);
+                    }
+                }
+                List<String> dependsOn = new ArrayList<>();
+                for (String dependency : CaseSheet.splitIds(CaseSheet.cellAt(cells, dependsColumn[0]))) {
+                    dependsOn.add(qualify(endpoint, dependency));
+                }
+                consumer.accept(new CaseRow(caseId, CaseSheet.cellAt(cells, 1).trim(), params,
+                        expectedByCase.getOrDefault(caseId, Collections.emptyMap()),
+                        CaseSheet.cellAt(cells, extractColumn[0]), dependsOn));
+            };
+            if (!reader.readSheet(REQUEST_SHEET, handler)) {
+                reader.readSheet(1, handler);
+            }
+        }
+    }
+
+    /**
+     * 执行一条用例，请求异常由调度器记为 ERROR
+     */
+    private CaseScheduler.Outcome<String> runCase(ApiMapping.Endpoint endpoint, String url, Map<String, String> params,
+                                                  Map<String, String> expected, String extract,
+                                                  Map<String, Object> variables) throws IOException {
+        String response = send(endpoint.getMethod(), url, CaseVariables.substitute(params, variables));
+        if (!expected.isEmpty()) {
+            String expectedJson = toJsonObject(CaseVariables.substitute(expected, variables)).toString();
+            if (!comparator.matches(response, expectedJson)) {
+                return CaseScheduler.Outcome.failed(response,
+                        CaseSheet.describeFailure(comparator, response, expectedJson));
+            }
+        }
+        try {
+            return CaseScheduler.Outcome.passed(response, CaseVariables.extract(response, extract));
+        } catch (IllegalArgumentException e) {
+            return CaseScheduler.Outcome.failed(response, "FAIL: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 调度器中的用例编号：文件名#用例编号；不含 # 的编号属于当前文件
+     */
+    private static String qualify(ApiMapping.Endpoint endpoint, String caseId) {
+        return caseId.indexOf('#') >= 0 ? caseId : endpoint.getFileName() + "#" + caseId;
+    }
+
+    private String send(String method, String url, Map<String, String> params) throws IOException {
+        return CaseExecution.callTarget(url, () -> {
+            switch (method) {
+                case "GET":
+                    return HttpOkUtil.getQuery(url, params);
+                case "POST":
+                    return HttpOkUtil.postJson(url, toJsonObject(params).toString());
+                case "PUT":
+                    return HttpOkUtil.putJson(url, toJsonObject(params).toString());
+                default:
+                    throw new IllegalArgumentException("不支持的请求方法: " + method);
+            }
+        });
+    }
+
+    /**
+     * 读取预期值：用例编号 -> 预期字段（字段名或 JSONPath -> 单元格文本）
+     */
+    private Map<String, Map<String, String>> readExpected(StreamingExcelReader reader) throws Exception {
+        Map<String, Map<String, String>> expectedByCase = new HashMap<>();
+        List<String> header = new ArrayList<>();
+        StreamingExcelReader.SheetRowHandler handler = (rowNum, cells) -> {
+            if (header.isEmpty()) {
+                header.addAll(cells);
+                return;
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 1; i < header.size(); i++) {
+                String name = header.get(i).trim();
+                String value = CaseSheet.cellAt(cells, i).trim();
+                if (!name.isEmpty() && !value.isEmpty()) {
+                    fields.put(toJsonPath(name, header), value);
+                }
+            }
+            expectedByCase.put(CaseSheet.cellAt(cells, 0).trim(), fields);
+        };
+        if (!reader.readSheet(EXPECTED_SHEET, handler)) {
+            reader.readSheet(2, handler);
+        }
+        return expectedByCase;
+    }
+
+    /**
+     * 有以 $ 开头的列时按 JSONPath 比对，其它列名转为对应顶层字段的 JSONPath
+     */
+    private static String toJsonPath(String name, List<String> header) {
+        if (name.startsWith("$")) {
+            return name;
+        }
+        for (String column : header) {
+            if (column.trim().startsWith("$")) {
+                return "$['" + name.replace("'", "\\'") + "']";
+            }
+        }
+        return name;
+    }
+
+    /**
+     * 单元格转为 JSON 对象：合法的 JSON 值按 JSON 解析，其余按字符串
+     */
+    private static ObjectNode toJsonObject(Map<String, String> cells) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        for (Map.Entry<String, String> cell : cells.entrySet()) {
+            node.set(cell.getKey(), toJsonValue(cell.getValue()));
+        }
+        return node;
+    }
+
+    private static JsonNode toJsonValue(String value) {
+        if (value == null) {
+            return JsonNodeFactory.instance.nullNode();
+        }
+        boolean container = value.startsWith("{") || value.startsWith("[");
+        // 含空白的标量（如 "1 2"）按字符串处理，避免只解析出第一个值
+        if (!container && (value.isEmpty() || value.chars().anyMatch(Character::isWhitespace))) {
+            return JsonNodeFactory.instance.textNode(value);
+        }
+        JsonNode node = JsonUtils.readTreeOrNull(value);
+        return node != null ? node : JsonNodeFactory.instance.textNode(value);
+    }
+
+    /**
+     * base.url 的主机加上映射中的地址；映射中的地址为完整 URL 时直接使用
+     */
+    private String resolveUrl(ApiMapping.Endpoint endpoint) {
+        String url = endpoint.getUrl();
+        if (url.startsWith("http://") || url.startsWith("https://")) {
+            return url;
+        }
+        if (baseUrl == null || baseUrl.trim().isEmpty()) {
+            throw new IllegalStateException("没有配置 base.url，无法确定 " + endpoint.getFileName() + " 的请求地址");
+        }
+        HttpUrl.Builder builder = HttpUrl.get(baseUrl.trim()).newBuilder()
+                .addPathSegments(url.startsWith("/") ? url.substring(1) : url);
+        if (!endpoint.getProtocol().isEmpty()) {
+            builder.scheme(endpoint.getProtocol());
+        }
+        return builder.build().toString();
+    }
+
+    /**
+     * @return 用例文件在 ClassPath 中的路径，不存在时返回 null
+     */
+    private static String locate(String fileName) {
+        for (String directory : SEARCH_DIRECTORIES) {
+            if (MappedCaseRunner.class.getClassLoader().getResource(directory + fileName) != null) {
+                return directory + fileName;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 用例文件中的一行用例
+     */
+    private static class CaseRow {
+        private final String caseId;
+        private final String caseName;
+        private final Map<String, String> params;
+        private final Map<String, String> expected;
+        private final String extract;
+        // 调度器中的编号（文件名#用例编号）
+        private final List<String> dependsOn;
+
+        private CaseRow(String caseId, String caseName, Map<String, String> params, Map<String, String> expected,
+                        String extract, List<String> dependsOn) {
+            this.caseId = caseId;
+            this.caseName = caseName;
+            this.params = params;
+            this.expected = expected;
+            this.extract = extract;
+            this.dependsOn = dependsOn;
+        }
+    }
+
+    /**
+     * 一个用例文件的执行结果
+     */
+    public static class WorkbookResult {
+        private final ApiMapping.Endpoint endpoint;
+        private final List<CaseResult> cases;
+
+        private WorkbookResult(ApiMapping.Endpoint endpoint, List<CaseResult> cases) {
+            this.endpoint = endpoint;
+            this.cases = Collections.unmodifiableList(cases);
+        }
+
+        public ApiMapping.Endpoint getEndpoint() {
+            return endpoint;
+        }
+
+        public List<CaseResult> getCases() {
+            return cases;
+        }
+
+        public int getFailedCount() {
+            int failed = 0;
+            for (CaseResult result : cases) {
+                if (!result.isPassed()) {
+                    failed++;
+                }
+            }
+            return failed;
+        }
+
+        private void print() {
+            System.out.println(endpoint + "（" + endpoint.getClassName() + "）：共 " + cases.size()
+                    + " 条，失败 " + getFailedCount() + " 条");
+            for (CaseResult result : cases) {
+                if (!result.isPassed()) {
+                    System.out.println("  " + result);
+                }
+            }
+        }
+    }
+
+    /**
+     * 一条用例的执行结果
+     */
+    public static class CaseResult {
+        private final String caseId;
+        private final String caseName;
+        private final String response;
+        private final String status;
+        private final boolean passed;
+
+        private CaseResult(String caseId, String caseName, String response, String status, boolean passed) {
+            this.caseId = caseId;
+            this.caseName = caseName;
+            this.response = response;
+            this.status = status;
+            this.passed = passed;
+        }
+
+        public String getCaseId() {
+            return caseId;
+        }
+
+        public String getCaseName() {
+            return caseName;
+        }
+
+        /**
+         * @return 响应体，请求异常时为 null
+         */
+        public String getResponse() {
+            return response;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public boolean isPassed() {
+            return passed;
+        }
+
+        @Override
+        public String toString() {
+            return status + " (用例 " + caseId + " " + caseName + ")" + (response == null ? "" : ": " + response);
+        }
+    }
+}
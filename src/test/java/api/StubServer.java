@@ -0,0 +1,119 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地桩服务，用于压测模式和执行器的自测，不依赖外部环境
+ * 监听本机随机端口，每个请求一个虚拟线程处理；按路径返回固定的状态码和响应体，可模拟处理耗时。
+ * <pre>
+ * try (StubServer stub = StubServer.start().respond("/login", 200, "{\"code\":0}", 5)) {
+ *     HttpOkUtil.postJson(stub.url("/login"), body);
+ * }
+ * </pre>
+ */
+public final class StubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Stub> stubs = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+
+    private StubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * 在本机随机端口启动
+     */
+    public static StubServer start() throws IOException {
+        StubServer stub = new StubServer();
+        stub.server.start();
+        return stub;
+    }
+
+    /**
+     * 配置路径的响应，未配置的路径返回 404
+     * @param path 请求路径（不含查询参数）
+     * @param status 状态码
+     * @param body 响应体（JSON）
+     * @param delayMillis 返回前等待的毫秒数
+     */
+    public StubServer respond(String path, int status, String body, long delayMillis) {
+        stubs.put(path, new Stub(status, body.getBytes(StandardCharsets.UTF_8), delayMillis));
+        return this;
+    }
+
+    /**
+     * @param path 请求路径
+     * @return 完整地址，如 http://127.0.0.1:54321/login
+     */
+    public String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+
+    /**
+     * @return 已收到的请求数
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            Stub stub = stubs.get(exchange.getRequestURI().getPath());
+            if (stub == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (stub.delayMillis > 0) {
+                try {
+                    Thread.sleep(stub.delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(stub.status, stub.body.length == 0 ? -1 : stub.body.length);
+            if (stub.body.length > 0) {
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(stub.body);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static final class Stub {
+        private final int status;
+        private final byte[] body;
+        private final long delayMillis;
+
+        private Stub(int status, byte[] body, long delayMillis) {
+            this.status = status;
+            this.body = body;
+            this.delayMillis = delayMillis;
+        }
+    }
+}
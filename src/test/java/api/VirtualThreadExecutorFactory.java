@@ -0,0 +1,44 @@
+package api;
+
+import config.CaseExecution;
+import org.testng.IExecutionListener;
+import org.testng.IExecutorServiceFactory;
+import org.testng.TestNG;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TestNG 线程池工厂：并行的测试方法（parallel = methods/classes/tests）在虚拟线程上执行
+ * 线程池大小仍取 thread-count，作为同时执行的测试方法数上限，因此可以把 thread-count 设为上万而不占用同样多的平台线程。
+ * TestNG 7.11 的并行数据提供者（@DataProvider(parallel = true)）固定使用自己的平台线程池，不经过该工厂；
+ * Excel 和映射用例由 ExcelInterfaceTest、MappedCaseRunner 通过 {@link CaseExecution} 在虚拟线程上执行，不受影响。
+ * 启用方式：作为监听器注册（mvn -Pvirtual-threads 已通过 surefire 注册），在虚拟线程模式开启时于执行开始前安装到当前 TestNG；
+ * 也可以通过 TestNG 命令行参数 -threadpoolfactoryclass api.VirtualThreadExecutorFactory 或 TestNG#setExecutorServiceFactory 指定。
+ */
+public class VirtualThreadExecutorFactory implements IExecutorServiceFactory, IExecutionListener {
+
+    @Override
+    public ExecutorService create(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                  BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory) {
+        // 线程名保留 TestNG 前缀，TestNG 据此判断当前是否为其工作线程
+        ThreadFactory virtualThreads = Thread.ofVirtual().name("TestNG-virtual-", 0).factory();
+        return new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, virtualThreads);
+    }
+
+    /**
+     * surefire 不能传递 -threadpoolfactoryclass，因此在执行开始时把自己设置为当前 TestNG 的线程池工厂
+     */
+    @Override
+    @SuppressWarnings("deprecation") // TestNG 没有提供其它获取当前实例的方式
+    public void onExecutionStart() {
+        TestNG testng = TestNG.getDefault();
+        if (CaseExecution.isVirtualThreads() && testng != null) {
+            testng.setExecutorServiceFactory(this);
+            System.out.println("TestNG 并行测试方法使用虚拟线程");
+        }
+    }
+}
@@ -1,26 +1,60 @@
 package base.util;
 
 
+import config.CaseExecution;
 import config.databaseUtils.DatabaseOperations;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import config.databaseUtils.impl.DatabaseOperationsImpl;
+import config.databaseUtils.impl.PooledDatabaseConnectionImpl;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+/**
+ * 执行 Excel 中 "数据准备" Sheet 的 SQL 语句
+ * 表头中名为 Sql 的列为 SQL 语句（没有该表头时使用第一列），名为 分组 / group 的列为分组编号。
+ * 同一分组内的语句按行顺序在一个事务中执行；不同分组之间没有顺序依赖，并行执行，各自使用连接池中的一个连接。
+ * 没有分组列时所有语句属于同一分组。
+ */
 public class DataPreparationExecutor {
 
+    private static final String SHEET_NAME = "数据准备";
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    private final DatabaseOperations databaseOperations;
+    private final int parallelism;
+
+    /**
+     * 使用套件共享的连接池
+     */
+    public DataPreparationExecutor() {
+        this(null, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param databaseOperations 数据库操作，为 null 时使用套件共享的连接池
+     * @param parallelism 最多同时执行的分组数
+     */
+    public DataPreparationExecutor(DatabaseOperations databaseOperations, int parallelism) {
+        this.databaseOperations = databaseOperations;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
     /**
      * 执行 Excel 中 "数据准备" Sheet 的 SQL 语句
      * @param excelFilePath 文件路径（绝对路径或相对路径）
      * @throws Exception 如果文件不存在、Sheet 不存在、SQL 执行失败等
      */
     public  void executeDataPreparation(String excelFilePath) throws Exception {
-        try (FileInputStream fis = new FileInputStream(excelFilePath);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-
-            executeWorkbook(workbook);
+        try (StreamingExcelReader reader = StreamingExcelReader.open(excelFilePath)) {
+            executeWorkbook(reader);
         }
     }
 
@@ -34,8 +68,8 @@ public class DataPreparationExecutor {
             if (is == null) {
                 throw new IOException("无法在 ClassPath 中找到文件: " + classpathResource);
             }
-            try (Workbook workbook = new XSSFWorkbook(is)) {
-                executeWorkbook(workbook);
+            try (StreamingExcelReader reader = StreamingExcelReader.open(is)) {
+                executeWorkbook(reader);
             }
         }
     }
@@ -43,40 +77,146 @@ public class DataPreparationExecutor {
     /**
      * 核心执行逻辑
      */
-    private  void executeWorkbook(Workbook workbook) throws Exception {
-        // 1. 获取 "数据准备" Sheet
-        Sheet sheet = workbook.getSheet("数据准备");
-        if (sheet == null) {
+    private  void executeWorkbook(StreamingExcelReader reader) throws Exception {
+        // 1. 流式读取 "数据准备" Sheet，按分组收集 SQL，分组内保持行顺序
+        SqlGroupCollector collector = new SqlGroupCollector();
+        if (!reader.readSheet(SHEET_NAME, collector)) {
             throw new IOException("Excel 文件中未找到名为 '数据准备' 的 Sheet。");
         }
 
-        boolean isFirstRow = true;
+        Map<String, List<SqlRow>> groups = collector.groups;
+        if (groups.isEmpty()) {
+            return;
+        }
+
+        // 2. 各分组并行执行，每个分组一个事务
+        executeGroups(groups);
+    }
+
+    /**
+     * 并行执行各分组，全部结束后如有失败则抛出异常，导致测试失败
+     */
+    private void executeGroups(Map<String, List<SqlRow>> groups) throws Exception {
+        // 未指定时每次执行临时创建，结束后关闭以释放其缓存的语句（共享连接池不会被关闭）
+        boolean owned = databaseOperations == null;
+        DatabaseOperations operations = owned
+                ? new DatabaseOperationsImpl(PooledDatabaseConnectionImpl.getInstance())
+                : databaseOperations;
+        int threads = Math.min(parallelism, groups.size());
+        // 虚拟线程模式下每个分组一个虚拟线程，同时执行的分组数仍受连接池大小限制
+        ExecutorService executor = CaseExecution.newExecutor("data-prep", threads);
+        try {
+            Map<String, Future<?>> futures = new LinkedHashMap<>();
+            for (Map.Entry<String, List<SqlRow>> entry : groups.entrySet()) {
+                futures.put(entry.getKey(), executor.submit(() -> {
+                    executeGroup(operations, entry.getKey(), entry.getValue());
+                    return null;
+                }));
+            }
+
+            Exception failure = null;
+            for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+                try {
+                    entry.getValue().get();
+                } catch (ExecutionException e) {
+                    Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+            if (owned) {
+                operations.close();
+            }
+        }
+    }
+
+    /**
+     * 在一个事务中按顺序执行分组内的 SQL
+     */
+    private void executeGroup(DatabaseOperations operations, String group, List<SqlRow> rows) throws Exception {
+        List<String> sqlList = new ArrayList<>(rows.size());
+        for (SqlRow row : rows) {
+            sqlList.add(row.sql);
+        }
+
+        int[] executed = {0};
+        try {
+            operations.executeInTransaction(sqlList, (index, sql, elapsedNanos, updateCount) -> {
+                executed[0] = index + 1;
+                System.out.printf("✅ 执行成功 [分组 %s] (%.1f ms, 影响 %d 行): %s%n",
+                        group, elapsedNanos / 1_000_000.0, updateCount, sql);
+            });
+        } catch (RuntimeException e) {
+            // 任何异常都抛出，导致测试失败
+            SqlRow failed = rows.get(Math.min(executed[0], rows.size() - 1));
+            throw new Exception("SQL 执行失败 (第 " + failed.rowNumber + " 行，分组 " + group + " 已回滚): " + failed.sql, e);
+        }
+    }
+
+    private static String stripTrailingSemicolon(String sql) {
+        int end = sql.length();
+        while (end > 0 && (sql.charAt(end - 1) == ';' || Character.isWhitespace(sql.charAt(end - 1)))) {
+            end--;
+        }
+        return sql.substring(0, end);
+    }
+
+    /**
+     * 读取表头定位 SQL 列和分组列，并按分组收集 SQL
+     */
+    private static class SqlGroupCollector implements StreamingExcelReader.SheetRowHandler {
+        private final Map<String, List<SqlRow>> groups = new LinkedHashMap<>();
+        private int sqlColumn = 0;
+        private int groupColumn = -1;
+        private boolean isFirstRow = true;
 
-        for (Row row : sheet) {
+        @Override
+        public void handle(int rowNum, List<String> cells) {
             if (isFirstRow) {
                 isFirstRow = false;
-                continue; // 跳过表头
+                for (int i = 0; i < cells.size(); i++) {
+                    String header = cells.get(i).trim().toLowerCase(Locale.ROOT);
+                    if ("sql".equals(header)) {
+                        sqlColumn = i;
+                    } else if ("分组".equals(header) || "group".equals(header)) {
+                        groupColumn = i;
+                    }
+                }
+                return; // 跳过表头
             }
 
-            // 假设 SQL 在第一列（索引 0）
-            Cell cell = row.getCell(0);
-            if (cell == null) {
-                continue; // 跳过空行
+            if (sqlColumn >= cells.size()) {
+                return; // 跳过空行
             }
 
-            String sql = cell.getStringCellValue().trim();
+            String sql = stripTrailingSemicolon(cells.get(sqlColumn).trim());
             if (sql.isEmpty()) {
-                continue; // 跳过空 SQL
+                return; // 跳过空 SQL
             }
 
-            // 2. 执行 SQL（调用你指定的方法）
-            try {
-              //  DatabaseOperations.execute(sql);
-                System.out.println("✅ 执行成功: " + sql);
-            } catch (Exception e) {
-                // 3. 任何异常都立即抛出，导致测试失败
-                throw new Exception("SQL 执行失败 (第 " + (row.getRowNum() + 1) + " 行): " + sql, e);
-            }
+            String group = groupColumn < 0 || groupColumn >= cells.size() ? "" : cells.get(groupColumn).trim();
+            groups.computeIfAbsent(group, k -> new ArrayList<>()).add(new SqlRow(rowNum + 1, sql));
+        }
+    }
+
+    /**
+     * Sheet 中的一条 SQL 及其所在行号（从 1 开始）
+     */
+    private static class SqlRow {
+        private final int rowNumber;
+        private final String sql;
+
+        private SqlRow(int rowNumber, String sql) {
+            this.rowNumber = rowNumber;
+            this.sql = sql;
         }
     }
-}
\ No newline at end of file
+}
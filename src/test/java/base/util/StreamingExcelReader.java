@@ -0,0 +1,223 @@
+package base.util;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于 POI 事件模型（SAX）的 xlsx 只读读取器
+ * 不构建整个工作簿的对象模型，按行回调，内存占用与行数无关；只需读取不需要写回单元格时使用。
+ * <pre>
+ * try (StreamingExcelReader reader = StreamingExcelReader.open("data/模板.xlsx")) {
+ *     reader.readSheet("数据准备", (rowNum, cells) -&gt; { ... });
+ * }
+ * </pre>
+ */
+public class StreamingExcelReader implements AutoCloseable {
+
+    private final OPCPackage pkg;
+    private final XSSFReader xssfReader;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final StylesTable styles;
+
+    private StreamingExcelReader(OPCPackage pkg) throws IOException {
+        this.pkg = pkg;
+        try {
+            this.xssfReader = new XSSFReader(pkg);
+            this.sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            this.styles = xssfReader.getStylesTable();
+        } catch (OpenXML4JException | SAXException e) {
+            pkg.revert();
+            throw new IOException("无法读取 Excel 文件结构", e);
+        }
+    }
+
+    /**
+     * 以只读方式打开文件系统中的 xlsx 文件
+     * @param excelFilePath 文件路径
+     * @return 读取器，使用完毕需关闭
+     */
+    public static StreamingExcelReader open(String excelFilePath) throws IOException {
+        try {
+            return new StreamingExcelReader(OPCPackage.open(excelFilePath, PackageAccess.READ));
+        } catch (org.apache.poi.openxml4j.exceptions.InvalidFormatException e) {
+            throw new IOException("无法打开 Excel 文件: " + excelFilePath, e);
+        }
+    }
+
+    /**
+     * 从输入流打开 xlsx（如 ClassPath 资源）
+     * @param inputStream 输入流，由调用方关闭
+     * @return 读取器，使用完毕需关闭
+     */
+    public static StreamingExcelReader open(InputStream inputStream) throws IOException {
+        try {
+            return new StreamingExcelReader(OPCPackage.open(inputStream));
+        } catch (org.apache.poi.openxml4j.exceptions.InvalidFormatException e) {
+            throw new IOException("无法打开 Excel 输入流", e);
+        }
+    }
+
+    /**
+     * 所有 Sheet 名称（按工作簿顺序）
+     */
+    public List<String> getSheetNames() throws IOException {
+        List<String> names = new ArrayList<>();
+        try {
+            XSSFReader.SheetIterator sheets = xssfReader.getSheetIterator();
+            while (sheets.hasNext()) {
+                // 只需要名称，取出的 Sheet 流直接关闭
+                sheets.next().close();
+                names.add(sheets.getSheetName());
+            }
+        } catch (org.apache.poi.openxml4j.exceptions.InvalidFormatException e) {
+            throw new IOException("无法读取 Sheet 列表", e);
+        }
+        return names;
+    }
+
+    /**
+     * 按名称逐行读取 Sheet
+     * @param sheetName Sheet 名称
+     * @param handler 行处理器
+     * @return Sheet 是否存在
+     */
+    public boolean readSheet(String sheetName, SheetRowHandler handler) throws Exception {
+        XSSFReader.SheetIterator sheets = xssfReader.getSheetIterator();
+        while (sheets.hasNext()) {
+            try (InputStream sheet = sheets.next()) {
+                if (sheetName.equals(sheets.getSheetName())) {
+                    parse(sheet, handler);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按下标逐行读取 Sheet
+     * @param sheetIndex Sheet 下标（从 0 开始）
+     * @param handler 行处理器
+     * @return Sheet 是否存在
+     */
+    public boolean readSheet(int sheetIndex, SheetRowHandler handler) throws Exception {
+        XSSFReader.SheetIterator sheets = xssfReader.getSheetIterator();
+        int index = 0;
+        while (sheets.hasNext()) {
+            try (InputStream sheet = sheets.next()) {
+                if (index++ == sheetIndex) {
+                    parse(sheet, handler);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        // 只读打开，不回写文件
+        pkg.revert();
+    }
+
+    private void parse(InputStream sheet, SheetRowHandler handler) throws Exception {
+        RowCollector collector = new RowCollector(handler);
+        try {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(styles, sharedStrings, collector, new DataFormatter(), false));
+            parser.parse(new InputSource(sheet));
+        } catch (RowHandlerException e) {
+            // 还原行处理器中抛出的原始异常
+            throw (Exception) e.getCause();
+        } catch (SAXException e) {
+            if (e.getException() != null) {
+                throw e.getException();
+            }
+            throw e;
+        } catch (ParserConfigurationException e) {
+            throw new IOException("无法创建 XML 解析器", e);
+        }
+    }
+
+    /**
+     * 行处理器
+     */
+    @FunctionalInterface
+    public interface SheetRowHandler {
+        /**
+         * @param rowNum 行号（从 0 开始，与 Row.getRowNum 一致），完全空白的行不会回调
+         * @param cells 单元格格式化后的文本，下标为列号，空单元格为空字符串
+         */
+        void handle(int rowNum, List<String> cells) throws Exception;
+    }
+
+    /**
+     * 把 SAX 单元格事件拼成整行后交给行处理器
+     */
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final SheetRowHandler handler;
+        private List<String> cells;
+        private int nextColumn;
+
+        private RowCollector(SheetRowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells = new ArrayList<>();
+            nextColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (cells.isEmpty()) {
+                return;
+            }
+            try {
+                handler.handle(rowNum, cells);
+            } catch (Exception e) {
+                throw new RowHandlerException(e);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? nextColumn : new CellReference(cellReference).getCol();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue == null ? "" : formattedValue);
+            nextColumn = column + 1;
+        }
+    }
+
+    /**
+     * 用于把行处理器的受检异常穿过 SAX 回调抛出
+     */
+    private static class RowHandlerException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private RowHandlerException(Exception cause) {
+            super(cause);
+        }
+    }
+}
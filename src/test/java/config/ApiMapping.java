@@ -0,0 +1,244 @@
+package config;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 用例文件与接口的映射（config/api-mapping.yml）
+ * <pre>
+ * mappings:
+ *   模板.xlsx:
+ *     url: /login/time
+ *     protocol: https
+ *     method: GET
+ *     class: moban
+ *     concurrency: 4     # 可选，该接口同时执行的用例数上限
+ *     prepare: true      # 可选，执行用例前先执行 "数据准备" Sheet 的 SQL
+ * </pre>
+ * 方法和 url 相同的用例文件属于同一接口，共用一个并发上限：其中配置了 concurrency 的文件取值必须一致，
+ * 否则执行时报错；未配置的文件沿用同一接口其它文件的配置，都未配置时使用默认值。
+ * 只支持上面这种按缩进嵌套的 键: 值 写法（可带 # 注释和引号），不依赖 YAML 库。
+ * 映射在第一次使用时加载，之后共享。
+ */
+public final class ApiMapping {
+
+    private static final String RESOURCE = "config/api-mapping.yml";
+    private static volatile ApiMapping instance;
+
+    private final Map<String, Endpoint> endpoints;
+
+    private ApiMapping(Map<String, Endpoint> endpoints) {
+        this.endpoints = Collections.unmodifiableMap(endpoints);
+    }
+
+    /**
+     * 加载 ClassPath 中的 config/api-mapping.yml（只加载一次）
+     */
+    public static ApiMapping get() {
+        ApiMapping mapping = instance;
+        if (mapping == null) {
+            synchronized (ApiMapping.class) {
+                mapping = instance;
+                if (mapping == null) {
+                    mapping = load(RESOURCE);
+                    instance = mapping;
+                }
+            }
+        }
+        return mapping;
+    }
+
+    /**
+     * 加载指定的映射文件
+     * @param resource ClassPath 中的文件路径
+     */
+    public static ApiMapping load(String resource) {
+        try (InputStream input = ApiMapping.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new RuntimeException("无法找到配置文件: " + resource);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            return new ApiMapping(parse(reader, resource));
+        } catch (IOException e) {
+            throw new RuntimeException("无法加载配置文件: " + resource, e);
+        }
+    }
+
+    /**
+     * 所有映射（按文件中的顺序）
+     */
+    public List<Endpoint> getEndpoints() {
+        return new ArrayList<>(endpoints.values());
+    }
+
+    /**
+     * @param fileName 用例文件名，如 模板.xlsx
+     * @return 映射，不存在时返回 null
+     */
+    public Endpoint getEndpoint(String fileName) {
+        return endpoints.get(fileName);
+    }
+
+    private static Map<String, Endpoint> parse(BufferedReader reader, String resource) throws IOException {
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        String fileName = null;
+        Map<String, String> properties = null;
+        int fileIndent = -1;
+        boolean inMappings = false;
+        String line;
+        int lineNumber = 0;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String content = stripComment(line);
+            if (content.trim().isEmpty()) {
+                continue;
+            }
+            int indent = content.length() - content.stripLeading().length();
+            int colon = content.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException(resource + " 第 " + lineNumber + " 行格式不正确: " + line);
+            }
+            String key = unquote(content.substring(indent, colon).trim());
+            String value = unquote(content.substring(colon + 1).trim());
+
+            if (indent == 0) {
+                inMappings = "mappings".equals(key);
+                fileIndent = -1;
+                continue;
+            }
+            if (!inMappings) {
+                continue;
+            }
+            if (fileIndent < 0 || indent <= fileIndent) {
+                if (fileName != null) {
+                    endpoints.put(fileName, new Endpoint(fileName, properties));
+                }
+                fileIndent = indent;
+                fileName = key;
+                properties = new LinkedHashMap<>();
+            } else {
+                properties.put(key.toLowerCase(Locale.ROOT), value);
+            }
+        }
+        if (fileName != null) {
+            endpoints.put(fileName, new Endpoint(fileName, properties));
+        }
+        return endpoints;
+    }
+
+    /**
+     * 去除引号外的 # 注释
+     */
+    private static String stripComment(String line) {
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '#' && (i == 0 || Character.isWhitespace(line.charAt(i - 1)))) {
+                return line.substring(0, i);
+            }
+        }
+        return line;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2) {
+            char first = value.charAt(0);
+            if ((first == '"' || first == '\'') && value.charAt(value.length() - 1) == first) {
+                return value.substring(1, value.length() - 1);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 一个用例文件对应的接口
+     */
+    public static final class Endpoint {
+        private final String fileName;
+        private final String url;
+        private final String protocol;
+        private final String method;
+        private final String className;
+        private final int concurrency;
+        private final boolean prepare;
+
+        private Endpoint(String fileName, Map<String, String> properties) {
+            this.fileName = fileName;
+            this.url = properties.getOrDefault("url", "");
+            this.protocol = properties.getOrDefault("protocol", "");
+            this.method = properties.getOrDefault("method", "GET").toUpperCase(Locale.ROOT);
+            this.className = properties.getOrDefault("class", "");
+            String concurrencyValue = properties.getOrDefault("concurrency", "");
+            this.concurrency = concurrencyValue.isEmpty() ? 0 : Integer.parseInt(concurrencyValue);
+            this.prepare = Boolean.parseBoolean(properties.getOrDefault("prepare", "false"));
+            if (url.isEmpty()) {
+                throw new IllegalArgumentException(RESOURCE + " 中 " + fileName + " 没有配置 url");
+            }
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * @return 协议，未配置时为空字符串（使用 base.url 的协议）
+         */
+        public String getProtocol() {
+            return protocol;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return 所属的测试类名，用于报告分组
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * @return 该接口同时执行的用例数上限，未配置时为 0
+         */
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public boolean isPrepare() {
+            return prepare;
+        }
+
+        /**
+         * 同一接口（方法 + 地址）的多个用例文件共用并发上限
+         */
+        public String getEndpointKey() {
+            return method + " " + url;
+        }
+
+        @Override
+        public String toString() {
+            return fileName + " -> " + method + " " + url;
+        }
+    }
+}
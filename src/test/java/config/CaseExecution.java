@@ -0,0 +1,141 @@
+package config;
+
+import okhttp3.HttpUrl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 用例执行方式：平台线程池（默认）或虚拟线程
+ * 配置项（config/test.properties，同名系统属性优先，如 -Dexecution.virtualThreads=true）：
+ * execution.virtualThreads 是否每个用例一个虚拟线程，
+ * execution.maxInFlight 虚拟线程模式下同时在途的用例数上限，
+ * execution.maxPerTarget 同一目标（主机:端口）同时进行的请求数上限，
+ * execution.pinnedThresholdMillis 虚拟线程被固定在载体线程上超过该时间时记录（0 表示不监控）。
+ * 虚拟线程模式下阻塞的 HTTP/JDBC 调用不再占用平台线程，在途用例数只受上面的上限约束；
+ * 请求通过 {@link #callTarget} 按目标获取许可，避免对同一服务同时发出过多请求。
+ */
+public final class CaseExecution {
+
+    private static final String ENV = "test";
+
+    private static final boolean virtualThreads;
+    private static final int maxInFlight;
+    private static final int maxPerTarget;
+    private static final long pinnedThresholdMillis;
+
+    // 目标（主机:端口）-> 许可
+    private static final Map<String, Semaphore> targets = new ConcurrentHashMap<>();
+
+    static {
+        ConfigLoader config = null;
+        try {
+            config = new ConfigLoader(ENV);
+        } catch (RuntimeException e) {
+            // 没有环境配置时使用默认值
+        }
+        virtualThreads = Boolean.parseBoolean(setting(config, "execution.virtualThreads", "false"));
+        maxInFlight = Math.max(1, Integer.parseInt(setting(config, "execution.maxInFlight", "10000")));
+        maxPerTarget = Math.max(1, Integer.parseInt(setting(config, "execution.maxPerTarget", "256")));
+        pinnedThresholdMillis = Long.parseLong(setting(config, "execution.pinnedThresholdMillis", "20"));
+    }
+
+    private CaseExecution() {
+    }
+
+    /**
+     * @return 是否启用虚拟线程模式
+     */
+    public static boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * 创建执行用例的线程池
+     * @param name 线程名前缀
+     * @param platformThreads 平台线程模式下的线程数
+     * @return 虚拟线程模式下每个任务一个虚拟线程，否则为固定大小的线程池
+     */
+    public static ExecutorService newExecutor(String name, int platformThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(platformThreads);
+    }
+
+    /**
+     * @param platformDefault 平台线程模式下的在途用例数
+     * @return 同时在途的用例数上限
+     */
+    public static int maxInFlight(int platformDefault) {
+        return virtualThreads ? maxInFlight : platformDefault;
+    }
+
+    /**
+     * @return 同一目标同时进行的请求数上限
+     */
+    public static int getMaxPerTarget() {
+        return maxPerTarget;
+    }
+
+    /**
+     * @return 记录虚拟线程固定的阈值（毫秒），0 表示不监控
+     */
+    public static long getPinnedThresholdMillis() {
+        return pinnedThresholdMillis;
+    }
+
+    /**
+     * 在目标的并发上限内执行请求，许可用完时等待（虚拟线程等待时不占用载体线程）
+     * @param url 请求地址，按 主机:端口 区分目标；无法解析时不限制
+     * @param call 请求
+     * @return 请求结果
+     */
+    public static <T, E extends Exception> T callTarget(String url, TargetCall<T, E> call) throws E {
+        HttpUrl parsed = url == null ? null : HttpUrl.parse(url.trim());
+        if (parsed == null) {
+            return call.call();
+        }
+        Semaphore permits = targets.computeIfAbsent(parsed.host() + ":" + parsed.port(), key -> new Semaphore(maxPerTarget));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待请求许可时被中断: " + url, e);
+        }
+        try {
+            return call.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 虚拟线程模式下开始监控虚拟线程固定（JFR jdk.VirtualThreadPinned 事件），否则返回空监控
+     * @return 监控，关闭时输出汇总
+     */
+    public static PinningMonitor monitorPinning() {
+        return virtualThreads && pinnedThresholdMillis > 0
+                ? PinningMonitor.start(pinnedThresholdMillis)
+                : PinningMonitor.disabled();
+    }
+
+    private static String setting(ConfigLoader config, String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null && config != null) {
+            value = config.getProperty(key);
+        }
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    /**
+     * 受并发上限约束的请求
+     */
+    @FunctionalInterface
+    public interface TargetCall<T, E extends Exception> {
+        T call() throws E;
+    }
+}
@@ -0,0 +1,142 @@
+package config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 用例之间传递的变量：从响应中提取，在后续用例的请求中通过 ${变量名} 引用
+ * 提取规则写作 变量名=路径，多个用分号或换行分隔，如 token=$.data.token; orderId=/data/id，
+ * 路径以 $ 开头时为 JSONPath，以 / 开头时为 JSON Pointer。
+ * 替换时只替换已定义的变量，其余 ${...}（如 JsonComparator 的占位符 ${any}）保持原样。
+ */
+public final class CaseVariables {
+
+    private static final Pattern REFERENCE = Pattern.compile("\\$\\{([^}]+)}");
+    private static final Pattern RULE_SEPARATOR = Pattern.compile("[;；\\n]+");
+
+    private static final Map<String, JsonPath> jsonPaths = new ConcurrentHashMap<>();
+    private static final Configuration jsonPathConfig = Configuration.builder()
+            .jsonProvider(new JacksonJsonNodeJsonProvider(JsonUtils.getMapper()))
+            .mappingProvider(new JacksonMappingProvider(JsonUtils.getMapper()))
+            .build();
+
+    private CaseVariables() {
+    }
+
+    /**
+     * 按提取规则从响应中取值
+     * @param response 响应体
+     * @param rules 提取规则，为空时不提取
+     * @return 变量名到值的映射（字符串、数字、布尔值、null 或 JsonNode）
+     * @throws IllegalArgumentException 规则格式不正确、响应不是 JSON 或路径不存在
+     */
+    public static Map<String, Object> extract(String response, String rules) {
+        if (rules == null || rules.trim().isEmpty()) {
+            return Collections.emptyMap();
+        }
+        JsonNode root = JsonUtils.readTreeOrNull(response);
+        if (root == null) {
+            throw new IllegalArgumentException("响应不是 JSON，无法提取变量");
+        }
+
+        Map<String, Object> variables = new LinkedHashMap<>();
+        for (String rule : RULE_SEPARATOR.split(rules.trim())) {
+            if (rule.trim().isEmpty()) {
+                continue;
+            }
+            int separator = rule.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("提取规则格式不正确（应为 变量名=路径）: " + rule.trim());
+            }
+            String name = rule.substring(0, separator).trim();
+            String path = rule.substring(separator + 1).trim();
+            JsonNode value = read(root, path);
+            if (value == null) {
+                throw new IllegalArgumentException("提取变量 " + name + " 失败：响应中没有 " + path);
+            }
+            variables.put(name, toValue(value));
+        }
+        return variables;
+    }
+
+    /**
+     * 把文本中的 ${变量名} 替换为变量值
+     * @param text 文本，为 null 时返回 null
+     * @param variables 变量
+     */
+    public static String substitute(String text, Map<String, Object> variables) {
+        if (text == null || variables.isEmpty() || text.indexOf("${") < 0) {
+            return text;
+        }
+        Matcher matcher = REFERENCE.matcher(text);
+        StringBuilder result = new StringBuilder(text.length());
+        while (matcher.find()) {
+            String name = matcher.group(1).trim();
+            String replacement = variables.containsKey(name) ? toText(variables.get(name)) : matcher.group();
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * 替换 Map 中各个值里的变量
+     */
+    public static Map<String, String> substitute(Map<String, String> values, Map<String, Object> variables) {
+        if (variables.isEmpty()) {
+            return values;
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            result.put(entry.getKey(), substitute(entry.getValue(), variables));
+        }
+        return result;
+    }
+
+    private static JsonNode read(JsonNode root, String path) {
+        if (path.startsWith("$")) {
+            try {
+                Object result = jsonPaths.computeIfAbsent(path, JsonPath::compile).read(root, jsonPathConfig);
+                return result instanceof JsonNode ? (JsonNode) result : JsonUtils.getMapper().valueToTree(result);
+            } catch (PathNotFoundException e) {
+                return null;
+            }
+        }
+        if (path.startsWith("/")) {
+            JsonNode node = root.at(path);
+            return node.isMissingNode() ? null : node;
+        }
+        throw new IllegalArgumentException("路径应以 $（JSONPath）或 /（JSON Pointer）开头: " + path);
+    }
+
+    private static Object toValue(JsonNode node) {
+        if (node.isNull()) {
+            return null;
+        }
+        if (node.isTextual()) {
+            return node.textValue();
+        }
+        if (node.isNumber()) {
+            return node.numberValue();
+        }
+        if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        return node;
+    }
+
+    private static String toText(Object value) {
+        return value == null ? "null" : value.toString();
+    }
+}
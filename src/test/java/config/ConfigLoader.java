@@ -12,6 +12,9 @@ public class ConfigLoader {
         String fileName = env + ".properties";
         try (InputStream input = getClass().getClassLoader()
                 .getResourceAsStream("config/" + fileName)) {
+            if (input == null) {
+                throw new RuntimeException("无法找到配置文件: config/" + fileName);
+            }
             properties.load(input);
         } catch (IOException e) {
             throw new RuntimeException("无法加载配置文件: " + fileName, e);
@@ -21,4 +24,23 @@ public class ConfigLoader {
     public String getProperty(String key) {
         return properties.getProperty(key);
     }
+
+    public String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    public int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public long getLongProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public boolean getBooleanProperty(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,400 @@
+package config;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.qameta.allure.Allure;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * HttpOkUtil 的请求指标
+ * 通过 OkHttp 的 EventListener 记录每个请求的总耗时和各阶段耗时（DNS、建连、TLS 握手、首字节），
+ * 按 方法 + 地址模板 + 状态码 分组，每组一个无锁的 {@link LatencyHistogram}。
+ * 地址模板由请求地址去掉查询参数、把路径中的数字、UUID、长十六进制串替换为占位符得到，如 GET example.com/user/{id}。
+ * 复用连接的请求没有 DNS/建连/TLS 阶段，这些阶段的记录数少于请求数。
+ * 套件结束时由 {@link api.HttpMetricsListener} 写出 JSON 和 Prometheus 文本格式的文件，也可以调用 {@link #attach()} 添加为 Allure 附件。
+ */
+public final class HttpMetrics {
+
+    private static final HttpMetrics INSTANCE = new HttpMetrics();
+
+    private static final String REPORT_DIRECTORY = "target/http-metrics";
+    // 分组数上限，超出后归入 other，避免地址模板识别不了的动态路径撑大内存
+    private static final int MAX_ENDPOINTS = 1000;
+    private static final String[] PHASES = {"dns", "connect", "tls", "ttfb"};
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    // Prometheus 直方图的桶上界（秒）
+    private static final double[] BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern UUID = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Pattern HEX = Pattern.compile("[0-9a-fA-F]{16,}");
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private HttpMetrics() {
+    }
+
+    /**
+     * @return 全局共享的指标
+     */
+    public static HttpMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return 为每个请求创建监听器的工厂，设置到 OkHttpClient.Builder#eventListenerFactory
+     */
+    public EventListener.Factory eventListenerFactory() {
+        return call -> new CallListener();
+    }
+
+    /**
+     * 清空已记录的指标
+     */
+    public void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * @return 所有分组（按请求数降序）
+     */
+    public List<Endpoint> getEndpoints() {
+        List<Endpoint> list = new ArrayList<>(endpoints.values());
+        list.sort(Comparator.comparingLong((Endpoint endpoint) -> endpoint.total.getCount()).reversed());
+        return list;
+    }
+
+    /**
+     * 地址模板：主机加路径，路径中的数字、UUID、长十六进制串替换为占位符
+     */
+    static String template(HttpUrl url) {
+        StringBuilder template = new StringBuilder(url.host());
+        if (url.port() != HttpUrl.defaultPort(url.scheme())) {
+            template.append(':').append(url.port());
+        }
+        for (String segment : url.pathSegments()) {
+            template.append('/');
+            if (NUMBER.matcher(segment).matches()) {
+                template.append("{id}");
+            } else if (UUID.matcher(segment).matches()) {
+                template.append("{uuid}");
+            } else if (HEX.matcher(segment).matches()) {
+                template.append("{hex}");
+            } else {
+                template.append(segment);
+            }
+        }
+        return template.toString();
+    }
+
+    private Endpoint endpoint(String method, String template, String status) {
+        String key = method + " " + template + " " + status;
+        Endpoint endpoint = endpoints.get(key);
+        if (endpoint != null) {
+            return endpoint;
+        }
+        if (endpoints.size() >= MAX_ENDPOINTS) {
+            return endpoints.computeIfAbsent(method + " other " + status, k -> new Endpoint(method, "other", status));
+        }
+        return endpoints.computeIfAbsent(key, k -> new Endpoint(method, template, status));
+    }
+
+    public String toJson() {
+        ArrayNode root = JsonNodeFactory.instance.arrayNode();
+        for (Endpoint endpoint : getEndpoints()) {
+            ObjectNode node = root.addObject();
+            node.put("method", endpoint.method);
+            node.put("endpoint", endpoint.template);
+            node.put("status", endpoint.status);
+            node.put("count", endpoint.total.getCount());
+            putLatency(node.putObject("latencyMillis"), endpoint.total);
+            ObjectNode phases = node.putObject("phasesMillis");
+            for (int i = 0; i < PHASES.length; i++) {
+                LatencyHistogram phase = endpoint.phases[i];
+                if (phase.getCount() > 0) {
+                    ObjectNode phaseNode = phases.putObject(PHASES[i]);
+                    phaseNode.put("count", phase.getCount());
+                    putLatency(phaseNode, phase);
+                }
+            }
+        }
+        return root.toPrettyString();
+    }
+
+    private static void putLatency(ObjectNode node, LatencyHistogram histogram) {
+        node.put("mean", Math.round(histogram.getMean()) / 1000.0);
+        for (double percentile : PERCENTILES) {
+            String name = percentile == Math.rint(percentile)
+                    ? "p" + (long) percentile
+                    : "p" + String.valueOf(percentile).replace(".", "");
+            node.put(name, histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        node.put("max", histogram.getMax() / 1000.0);
+    }
+
+    /**
+     * Prometheus 文本格式：总耗时为直方图，各阶段耗时为摘要（0.5、0.99 分位）
+     */
+    public String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        List<Endpoint> list = getEndpoints();
+        text.append("# HELP http_client_request_duration_seconds HttpOkUtil 请求总耗时\n");
+        text.append("# TYPE http_client_request_duration_seconds histogram\n");
+        for (Endpoint endpoint : list) {
+            String labels = endpoint.labels();
+            for (double bucket : BUCKETS) {
+                // 只计入整个落在上界以内的桶，le 桶中不会出现大于上界的记录
+                long count = endpoint.total.getCountAtOrBelow((long) (bucket * 1_000_000));
+                text.append("http_client_request_duration_seconds_bucket{").append(labels)
+                        .append(",le=\"").append(bucket).append("\"} ").append(count).append('\n');
+            }
+            text.append("http_client_request_duration_seconds_bucket{").append(labels).append(",le=\"+Inf\"} ")
+                    .append(endpoint.total.getCount()).append('\n');
+            text.append("http_client_request_duration_seconds_sum{").append(labels).append("} ")
+                    .append(endpoint.total.getTotal() / 1e6).append('\n');
+            text.append("http_client_request_duration_seconds_count{").append(labels).append("} ")
+                    .append(endpoint.total.getCount()).append('\n');
+        }
+
+        text.append("# HELP http_client_phase_duration_seconds HttpOkUtil 请求各阶段耗时（dns、connect、tls、ttfb）\n");
+        text.append("# TYPE http_client_phase_duration_seconds summary\n");
+        for (Endpoint endpoint : list) {
+            for (int i = 0; i < PHASES.length; i++) {
+                LatencyHistogram phase = endpoint.phases[i];
+                if (phase.getCount() == 0) {
+                    continue;
+                }
+                String labels = endpoint.labels() + ",phase=\"" + PHASES[i] + "\"";
+                for (double quantile : new double[]{0.5, 0.99}) {
+                    text.append("http_client_phase_duration_seconds{").append(labels).append(",quantile=\"")
+                            .append(quantile).append("\"} ")
+                            .append(phase.getValueAtPercentile(quantile * 100) / 1e6).append('\n');
+                }
+                text.append("http_client_phase_duration_seconds_sum{").append(labels).append("} ")
+                        .append(phase.getTotal() / 1e6).append('\n');
+                text.append("http_client_phase_duration_seconds_count{").append(labels).append("} ")
+                        .append(phase.getCount()).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * 写出 target/http-metrics/http-metrics.json 和 http-metrics.prom
+     * @return JSON 文件
+     */
+    public Path write() throws IOException {
+        return write(Paths.get(REPORT_DIRECTORY));
+    }
+
+    /**
+     * 写出 http-metrics.json 和 http-metrics.prom
+     * @param directory 目录，不存在时创建
+     * @return JSON 文件
+     */
+    public Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path json = directory.resolve("http-metrics.json");
+        Files.write(json, toJson().getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("http-metrics.prom"), toPrometheus().getBytes(StandardCharsets.UTF_8));
+        return json;
+    }
+
+    /**
+     * 作为 Allure 附件添加到当前测试或配置方法（JSON 和 Prometheus 文本）
+     */
+    public void attach() {
+        Allure.addAttachment("HTTP 请求指标", "application/json", toJson(), ".json");
+        Allure.addAttachment("HTTP 请求指标（Prometheus）", "text/plain", toPrometheus(), ".txt");
+    }
+
+    /**
+     * 一组（方法 + 地址模板 + 状态码）请求的指标
+     */
+    public static final class Endpoint {
+        private final String method;
+        private final String template;
+        private final String status;
+        private final LatencyHistogram total = new LatencyHistogram();
+        // 与 PHASES 顺序一致
+        private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+
+        private Endpoint(String method, String template, String status) {
+            this.method = method;
+            this.template = template;
+            this.status = status;
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new LatencyHistogram();
+            }
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+
+        /**
+         * @return 状态码，请求失败（无响应）时为 error
+         */
+        public String getStatus() {
+            return status;
+        }
+
+        /**
+         * @return 总耗时（微秒）
+         */
+        public LatencyHistogram getTotal() {
+            return total;
+        }
+
+        /**
+         * @param phase dns、connect、tls 或 ttfb
+         * @return 阶段耗时（微秒）
+         */
+        public LatencyHistogram getPhase(String phase) {
+            for (int i = 0; i < PHASES.length; i++) {
+                if (PHASES[i].equals(phase)) {
+                    return phases[i];
+                }
+            }
+            throw new IllegalArgumentException("未知的阶段: " + phase);
+        }
+
+        private String labels() {
+            return "method=\"" + method + "\",endpoint=\"" + escape(template) + "\",status=\"" + status + "\"";
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"");
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + template + " " + status;
+        }
+    }
+
+    /**
+     * 一个请求的监听器：记录各事件的时间，请求结束时写入所属分组
+     * 同一请求的事件按顺序在执行请求的线程上回调，字段不需要同步
+     */
+    private final class CallListener extends EventListener {
+        // System.nanoTime() 可能为负数，未发生的事件用 Long.MIN_VALUE 标记
+        private static final long UNSET = Long.MIN_VALUE;
+
+        private long callStart;
+        private long dnsStart = UNSET;
+        private long dnsEnd = UNSET;
+        private long connectStart = UNSET;
+        private long secureConnectStart = UNSET;
+        private long secureConnectEnd = UNSET;
+        private long connectEnd = UNSET;
+        private long requestHeadersStart = UNSET;
+        private long responseHeadersEnd = UNSET;
+        private String status = "error";
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<java.net.InetAddress> addresses) {
+            dnsEnd = System.nanoTime();
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            // 换路由重试时以最后一次为准
+            connectStart = System.nanoTime();
+            secureConnectStart = UNSET;
+            secureConnectEnd = UNSET;
+            connectEnd = UNSET;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            secureConnectEnd = System.nanoTime();
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+            connectEnd = System.nanoTime();
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestHeadersStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            responseHeadersEnd = System.nanoTime();
+            status = String.valueOf(response.code());
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            record(call);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            record(call);
+        }
+
+        private void record(Call call) {
+            long end = System.nanoTime();
+            HttpUrl url = call.request().url();
+            Endpoint endpoint = endpoint(call.request().method().toUpperCase(Locale.ROOT), template(url), status);
+            endpoint.total.recordNanos(end - callStart);
+            recordPhase(endpoint.phases[0], dnsStart, dnsEnd);
+            // 建连只算 TCP 部分，TLS 握手单独统计
+            recordPhase(endpoint.phases[1], connectStart, secureConnectStart != UNSET ? secureConnectStart : connectEnd);
+            recordPhase(endpoint.phases[2], secureConnectStart, secureConnectEnd);
+            // 从开始发送请求到收到完整响应头
+            recordPhase(endpoint.phases[3], requestHeadersStart, responseHeadersEnd);
+        }
+
+        private void recordPhase(LatencyHistogram histogram, long start, long end) {
+            // nanoTime 只能通过差值比较先后，不能直接比较大小
+            if (start != UNSET && end != UNSET && end - start >= 0) {
+                histogram.recordNanos(end - start);
+            }
+        }
+    }
+}
@@ -1,30 +1,116 @@
 package config;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import okhttp3.*;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 public class HttpOkUtil {
-    private static final OkHttpClient client = new OkHttpClient.Builder()
-            .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(30, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
-            .build();
+    private static final String DEFAULT_ENV = "test";
+
+    // setMaxConcurrency 设置的并发上限，0 表示使用配置文件中的 http.dispatcher.*；重建客户端时保留
+    private static volatile int maxRequestsOverride;
+    private static volatile int maxRequestsPerHostOverride;
+
+    // 共享客户端，可按环境配置重建
+    private static volatile OkHttpClient client = createDefaultClient();
 
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
     private static final MediaType FORM = MediaType.get("application/x-www-form-urlencoded; charset=utf-8");
 
-    // 全局共用头部信息
-    private static Map<String, String> commonHeaders;
+    // 全局共用头部信息：不可变快照，写时复制（写操作在类锁上串行），读取无锁
+    private static volatile Map<String, String> commonHeaders = Collections.emptyMap();
+
+    // 当前线程的请求头（如不同测试使用不同租户/令牌），同名时覆盖全局头部
+    private static final ThreadLocal<Map<String, String>> threadHeaders = new ThreadLocal<>();
 
     /**
-     * 设置全局共用头部信息
+     * 设置全局共用头部信息（整体替换，传入的Map会被复制，之后对其修改不影响已设置的头部）
      * @param headers 共用头部信息
      */
-    public static void setCommonHeaders(Map<String, String> headers) {
-        commonHeaders = headers;
+    public static synchronized void setCommonHeaders(Map<String, String> headers) {
+        commonHeaders = headers == null ? Collections.emptyMap() : freeze(headers);
+    }
+
+    /**
+     * 新增或替换一个全局共用头部
+     * @param name 头部名称
+     * @param value 头部值
+     */
+    public static synchronized void putCommonHeader(String name, String value) {
+        Map<String, String> copy = new LinkedHashMap<>(commonHeaders);
+        copy.put(name, value);
+        commonHeaders = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * 在当前线程上开启请求头作用域，作用域内发出的请求都会带上这些头部，
+     * 嵌套作用域在外层基础上叠加，关闭时恢复外层的请求头。
+     * <pre>
+     * try (HttpOkUtil.HeaderScope ignored = HttpOkUtil.headerScope(Map.of("X-Tenant", "t1"))) {
+     *     HttpOkUtil.getQuery(url, params);
+     * }
+     * </pre>
+     * @param headers 作用域内的请求头
+     * @return 作用域，需在同一线程上关闭
+     */
+    public static HeaderScope headerScope(Map<String, String> headers) {
+        Map<String, String> previous = threadHeaders.get();
+        Map<String, String> merged = new LinkedHashMap<>();
+        if (previous != null) {
+            merged.putAll(previous);
+        }
+        merged.putAll(headers);
+        threadHeaders.set(Collections.unmodifiableMap(merged));
+        return new HeaderScope(previous);
+    }
+
+    /**
+     * 清除当前线程上的所有请求头作用域
+     */
+    public static void clearThreadHeaders() {
+        threadHeaders.remove();
+    }
+
+    /**
+     * 按指定环境的配置文件（config/{env}.properties）重建共享客户端
+     * @param env 环境名称，如 test
+     */
+    public static void configure(String env) {
+        configure(new ConfigLoader(env));
+    }
+
+    /**
+     * 按配置重建共享客户端，旧客户端上的空闲连接会被回收，进行中的请求不受影响；
+     * 之前通过 setMaxConcurrency 设置的并发上限在新客户端上继续生效
+     * @param config 配置加载器
+     */
+    public static synchronized void configure(ConfigLoader config) {
+        OkHttpClient old = client;
+        client = buildClient(config);
+        old.connectionPool().evictAll();
+    }
+
+    /**
+     * 设置异步请求的并发上限（超出上限的请求在调度器中排队，不占用调用线程）
+     * 覆盖配置文件中的 http.dispatcher.*，之后 configure 重建的客户端也使用该上限
+     * @param maxRequests 全局最大并发请求数
+     * @param maxRequestsPerHost 单个主机最大并发请求数
+     */
+    public static synchronized void setMaxConcurrency(int maxRequests, int maxRequestsPerHost) {
+        maxRequestsOverride = maxRequests;
+        maxRequestsPerHostOverride = maxRequestsPerHost;
+        Dispatcher dispatcher = client.dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
     }
 
     /**
@@ -47,37 +133,7 @@ public class HttpOkUtil {
      * @throws IOException IO异常
      */
     public static String getQuery(String url, Map<String, String> params, Map<String, List<String>> collectionParams) throws IOException {
-        HttpUrl.Builder urlBuilder = HttpUrl.parse(url).newBuilder();
-
-        // 添加单值参数
-        if (params != null) {
-            for (Map.Entry<String, String> entry : params.entrySet()) {
-                urlBuilder.addQueryParameter(entry.getKey(), entry.getValue());
-            }
-        }
-
-        // 添加集合参数（同一key多个值）
-        if (collectionParams != null) {
-            for (Map.Entry<String, List<String>> entry : collectionParams.entrySet()) {
-                String key = entry.getKey();
-                for (String value : entry.getValue()) {
-                    urlBuilder.addQueryParameter(key, value);
-                }
-            }
-        }
-
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(urlBuilder.build())
-                .get();
-
-        // 添加共用请求头
-        addCommonHeaders(requestBuilder);
-
-        Request request = requestBuilder.build();
-
-        try (Response response = client.newCall(request).execute()) {
-            return response.body().string();
-        }
+        return execute(buildGetRequest(url, params, collectionParams));
     }
 
     /**
@@ -88,19 +144,7 @@ public class HttpOkUtil {
      * @throws IOException IO异常
      */
     public static String postJson(String url, String jsonBody) throws IOException {
-        RequestBody body = RequestBody.create(jsonBody, JSON);
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(url)
-                .post(body);
-
-        // 添加共用请求头
-        addCommonHeaders(requestBuilder);
-
-        Request request = requestBuilder.build();
-
-        try (Response response = client.newCall(request).execute()) {
-            return response.body().string();
-        }
+        return execute(buildPostJsonRequest(url, jsonBody));
     }
 
     /**
@@ -123,26 +167,191 @@ public class HttpOkUtil {
      * @throws IOException IO异常
      */
     public static String postForm(String url, Map<String, String> params, Map<String, List<String>> collectionParams) throws IOException {
-        FormBody.Builder formBuilder = new FormBody.Builder();
+        return execute(buildPostFormRequest(url, params, collectionParams));
+    }
+
+    /**
+     * PUT请求 - JSON格式
+     * @param url 请求地址
+     * @param jsonBody JSON请求体
+     * @return 响应结果
+     * @throws IOException IO异常
+     */
+    public static String putJson(String url, String jsonBody) throws IOException {
+        return execute(buildPutJsonRequest(url, jsonBody));
+    }
+
+    /**
+     * PUT请求 - 表单格式 - 带参数和集合参数
+     * @param url 请求地址
+     * @param params 单值参数
+     * @param collectionParams 集合参数
+     * @return 响应结果
+     * @throws IOException IO异常
+     */
+    public static String putForm(String url, Map<String, String> params, Map<String, List<String>> collectionParams) throws IOException {
+        return execute(buildPutFormRequest(url, params, collectionParams));
+    }
+
+    /**
+     * 异步GET请求 - 带参数
+     * @param url 请求地址
+     * @param params 请求参数
+     * @return 响应结果的Future
+     */
+    public static CompletableFuture<String> getQueryAsync(String url, Map<String, String> params) {
+        return getQueryAsync(url, params, null);
+    }
+
+    /**
+     * 异步GET请求 - 带参数和集合参数
+     * @param url 请求地址
+     * @param params 单值参数
+     * @param collectionParams 集合参数
+     * @return 响应结果的Future
+     */
+    public static CompletableFuture<String> getQueryAsync(String url, Map<String, String> params, Map<String, List<String>> collectionParams) {
+        return enqueue(buildGetRequest(url, params, collectionParams));
+    }
+
+    /**
+     * 异步POST请求 - JSON格式
+     * @param url 请求地址
+     * @param jsonBody JSON请求体
+     * @return 响应结果的Future
+     */
+    public static CompletableFuture<String> postJsonAsync(String url, String jsonBody) {
+        return enqueue(buildPostJsonRequest(url, jsonBody));
+    }
+
+    /**
+     * 异步POST请求 - 表单格式 - 带参数
+     * @param url 请求地址
+     * @param params 表单参数
+     * @return 响应结果的Future
+     */
+    public static CompletableFuture<String> postFormAsync(String url, Map<String, String> params) {
+        return postFormAsync(url, params, null);
+    }
+
+    /**
+     * 异步POST请求 - 表单格式 - 带参数和集合参数
+     * @param url 请求地址
+     * @param params 单值参数
+     * @param collectionParams 集合参数
+     * @return 响应结果的Future
+     */
+    public static CompletableFuture<String> postFormAsync(String url, Map<String, String> params, Map<String, List<String>> collectionParams) {
+        return enqueue(buildPostFormRequest(url, params, collectionParams));
+    }
+
+    /**
+     * 异步PUT请求 - JSON格式
+     * @param url 请求地址
+     * @param jsonBody JSON请求体
+     * @return 响应结果的Future
+     */
+    public static CompletableFuture<String> putJsonAsync(String url, String jsonBody) {
+        return enqueue(buildPutJsonRequest(url, jsonBody));
+    }
+
+    /**
+     * 异步PUT请求 - 表单格式 - 带参数和集合参数
+     * @param url 请求地址
+     * @param params 单值参数
+     * @param collectionParams 集合参数
+     * @return 响应结果的Future
+     */
+    public static CompletableFuture<String> putFormAsync(String url, Map<String, String> params, Map<String, List<String>> collectionParams) {
+        return enqueue(buildPutFormRequest(url, params, collectionParams));
+    }
+
+    /**
+     * GET请求 - 流式处理响应体，响应体不会整体读入内存
+     * @param url 请求地址
+     * @param params 请求参数
+     * @param handler 响应体输入流处理器，流在处理器返回后自动关闭
+     * @return 处理器返回值
+     * @throws IOException IO异常
+     */
+    public static <T> T getQueryStream(String url, Map<String, String> params, StreamHandler<T> handler) throws IOException {
+        return executeStreaming(buildGetRequest(url, params, null), handler);
+    }
+
+    /**
+     * POST请求 - JSON格式 - 流式处理响应体
+     * @param url 请求地址
+     * @param jsonBody JSON请求体
+     * @param handler 响应体输入流处理器，流在处理器返回后自动关闭
+     * @return 处理器返回值
+     * @throws IOException IO异常
+     */
+    public static <T> T postJsonStream(String url, String jsonBody, StreamHandler<T> handler) throws IOException {
+        return executeStreaming(buildPostJsonRequest(url, jsonBody), handler);
+    }
+
+    /**
+     * GET请求 - 只提取响应JSON中指定路径的值，适用于大体积响应的断言
+     * @param url 请求地址
+     * @param params 请求参数
+     * @param pointers JSON Pointer 路径，如 /data/total
+     * @return 路径到节点的映射
+     * @throws IOException IO异常
+     */
+    public static Map<String, JsonNode> getQueryPaths(String url, Map<String, String> params, Collection<String> pointers) throws IOException {
+        return getQueryStream(url, params, in -> JsonUtils.readPaths(in, pointers));
+    }
+
+    /**
+     * POST请求 - JSON格式 - 只提取响应JSON中指定路径的值
+     * @param url 请求地址
+     * @param jsonBody JSON请求体
+     * @param pointers JSON Pointer 路径，如 /data/total
+     * @return 路径到节点的映射
+     * @throws IOException IO异常
+     */
+    public static Map<String, JsonNode> postJsonPaths(String url, String jsonBody, Collection<String> pointers) throws IOException {
+        return postJsonStream(url, jsonBody, in -> JsonUtils.readPaths(in, pointers));
+    }
+
+    /**
+     * 构建GET请求
+     */
+    private static Request buildGetRequest(String url, Map<String, String> params, Map<String, List<String>> collectionParams) {
+        HttpUrl.Builder urlBuilder = HttpUrl.parse(url).newBuilder();
 
         // 添加单值参数
         if (params != null) {
             for (Map.Entry<String, String> entry : params.entrySet()) {
-                formBuilder.add(entry.getKey(), entry.getValue());
+                urlBuilder.addQueryParameter(entry.getKey(), entry.getValue());
             }
         }
 
-        // 添加集合参数
+        // 添加集合参数（同一key多个值）
         if (collectionParams != null) {
             for (Map.Entry<String, List<String>> entry : collectionParams.entrySet()) {
                 String key = entry.getKey();
                 for (String value : entry.getValue()) {
-                    formBuilder.add(key, value);
+                    urlBuilder.addQueryParameter(key, value);
                 }
             }
         }
 
-        RequestBody body = formBuilder.build();
+        Request.Builder requestBuilder = new Request.Builder()
+                .url(urlBuilder.build())
+                .get();
+
+        // 添加共用请求头
+        addCommonHeaders(requestBuilder);
+
+        return requestBuilder.build();
+    }
+
+    /**
+     * 构建POST JSON请求
+     */
+    private static Request buildPostJsonRequest(String url, String jsonBody) {
+        RequestBody body = RequestBody.create(jsonBody, JSON);
         Request.Builder requestBuilder = new Request.Builder()
                 .url(url)
                 .post(body);
@@ -150,21 +359,27 @@ public class HttpOkUtil {
         // 添加共用请求头
         addCommonHeaders(requestBuilder);
 
-        Request request = requestBuilder.build();
+        return requestBuilder.build();
+    }
 
-        try (Response response = client.newCall(request).execute()) {
-            return response.body().string();
-        }
+    /**
+     * 构建POST表单请求
+     */
+    private static Request buildPostFormRequest(String url, Map<String, String> params, Map<String, List<String>> collectionParams) {
+        Request.Builder requestBuilder = new Request.Builder()
+                .url(url)
+                .post(buildFormBody(params, collectionParams));
+
+        // 添加共用请求头
+        addCommonHeaders(requestBuilder);
+
+        return requestBuilder.build();
     }
 
     /**
-     * PUT请求 - JSON格式
-     * @param url 请求地址
-     * @param jsonBody JSON请求体
-     * @return 响应结果
-     * @throws IOException IO异常
+     * 构建PUT JSON请求
      */
-    public static String putJson(String url, String jsonBody) throws IOException {
+    private static Request buildPutJsonRequest(String url, String jsonBody) {
         RequestBody body = RequestBody.create(jsonBody, JSON);
         Request.Builder requestBuilder = new Request.Builder()
                 .url(url)
@@ -173,22 +388,30 @@ public class HttpOkUtil {
         // 添加共用请求头
         addCommonHeaders(requestBuilder);
 
-        Request request = requestBuilder.build();
+        return requestBuilder.build();
+    }
 
-        try (Response response = client.newCall(request).execute()) {
-            return response.body().string();
-        }
+    /**
+     * 构建PUT表单请求
+     */
+    private static Request buildPutFormRequest(String url, Map<String, String> params, Map<String, List<String>> collectionParams) {
+        Request.Builder requestBuilder = new Request.Builder()
+                .url(url)
+                .put(buildFormBody(params, collectionParams));
+
+        // 添加共用请求头
+        addCommonHeaders(requestBuilder);
+
+        return requestBuilder.build();
     }
 
     /**
-     * PUT请求 - 表单格式 - 带参数和集合参数
-     * @param url 请求地址
+     * 构建表单请求体
      * @param params 单值参数
      * @param collectionParams 集合参数
-     * @return 响应结果
-     * @throws IOException IO异常
+     * @return 表单请求体
      */
-    public static String putForm(String url, Map<String, String> params, Map<String, List<String>> collectionParams) throws IOException {
+    private static RequestBody buildFormBody(Map<String, String> params, Map<String, List<String>> collectionParams) {
         FormBody.Builder formBuilder = new FormBody.Builder();
 
         // 添加单值参数
@@ -208,30 +431,170 @@ public class HttpOkUtil {
             }
         }
 
-        RequestBody body = formBuilder.build();
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(url)
-                .put(body);
-
-        // 添加共用请求头
-        addCommonHeaders(requestBuilder);
-
-        Request request = requestBuilder.build();
+        return formBuilder.build();
+    }
 
+    /**
+     * 同步执行请求，阻塞直到读取完整响应体
+     * @param request 请求
+     * @return 响应结果
+     * @throws IOException IO异常
+     */
+    private static String execute(Request request) throws IOException {
         try (Response response = client.newCall(request).execute()) {
             return response.body().string();
         }
     }
 
+    /**
+     * 同步执行请求，并把响应体输入流交给处理器
+     * @param request 请求
+     * @param handler 响应体输入流处理器
+     * @return 处理器返回值
+     * @throws IOException IO异常
+     */
+    private static <T> T executeStreaming(Request request, StreamHandler<T> handler) throws IOException {
+        try (Response response = client.newCall(request).execute();
+             InputStream in = response.body().byteStream()) {
+            return handler.handle(in);
+        }
+    }
+
+    /**
+     * 异步执行请求，由OkHttp调度器按并发上限排队执行
+     * @param request 请求
+     * @return 响应结果的Future，请求失败时以IOException异常完成；取消Future会取消底层请求
+     */
+    private static CompletableFuture<String> enqueue(Request request) {
+        Call call = client.newCall(request);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response r = response) {
+                    future.complete(r.body().string());
+                } catch (IOException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 创建默认客户端，默认环境配置不存在时使用内置默认值
+     */
+    private static OkHttpClient createDefaultClient() {
+        try {
+            return buildClient(new ConfigLoader(DEFAULT_ENV));
+        } catch (RuntimeException e) {
+            return new OkHttpClient.Builder()
+                    .connectTimeout(30, TimeUnit.SECONDS)
+                    .readTimeout(30, TimeUnit.SECONDS)
+                    .writeTimeout(30, TimeUnit.SECONDS)
+                    .build();
+        }
+    }
+
+    /**
+     * 根据配置构建客户端：超时、连接池、调度器并发上限（setMaxConcurrency 设置的优先）、是否优先使用HTTP/2以及是否记录请求指标
+     * @param config 配置加载器
+     * @return 客户端
+     */
+    private static OkHttpClient buildClient(ConfigLoader config) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequestsOverride > 0
+                ? maxRequestsOverride : config.getIntProperty("http.dispatcher.maxRequests", 64));
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHostOverride > 0
+                ? maxRequestsPerHostOverride : config.getIntProperty("http.dispatcher.maxRequestsPerHost", 5));
+
+        ConnectionPool connectionPool = new ConnectionPool(
+                config.getIntProperty("http.pool.maxIdleConnections", 5),
+                config.getLongProperty("http.pool.keepAliveSeconds", 300),
+                TimeUnit.SECONDS);
+
+        // 启用时通过TLS ALPN协商HTTP/2，同一主机的请求复用一条连接；关闭时只使用HTTP/1.1
+        List<Protocol> protocols = config.getBooleanProperty("http.preferHttp2", true)
+                ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : Collections.singletonList(Protocol.HTTP_1_1);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(config.getLongProperty("http.connectTimeout", 30), TimeUnit.SECONDS)
+                .readTimeout(config.getLongProperty("http.readTimeout", 30), TimeUnit.SECONDS)
+                .writeTimeout(config.getLongProperty("http.writeTimeout", 30), TimeUnit.SECONDS)
+                .callTimeout(config.getLongProperty("http.callTimeout", 0), TimeUnit.SECONDS)
+                .dispatcher(dispatcher)
+                .connectionPool(connectionPool)
+                .protocols(protocols);
+        // 按接口记录耗时分布和各阶段耗时，套件结束时输出，见HttpMetrics
+        if (config.getBooleanProperty("http.metrics.enabled", true)) {
+            builder.eventListenerFactory(HttpMetrics.get().eventListenerFactory());
+        }
+        return builder.build();
+    }
+
     /**
      * 添加共用请求头到请求构建器
      * @param requestBuilder 请求构建器
      */
     private static void addCommonHeaders(Request.Builder requestBuilder) {
-        if (commonHeaders != null) {
-            for (Map.Entry<String, String> entry : commonHeaders.entrySet()) {
+        Map<String, String> global = commonHeaders;
+        Map<String, String> scoped = threadHeaders.get();
+
+        for (Map.Entry<String, String> entry : global.entrySet()) {
+            if (scoped == null || !scoped.containsKey(entry.getKey())) {
                 requestBuilder.addHeader(entry.getKey(), entry.getValue());
             }
         }
+
+        if (scoped != null) {
+            for (Map.Entry<String, String> entry : scoped.entrySet()) {
+                requestBuilder.addHeader(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static Map<String, String> freeze(Map<String, String> headers) {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+    }
+
+    /**
+     * 线程级请求头作用域，关闭时恢复开启前的请求头
+     */
+    public static final class HeaderScope implements AutoCloseable {
+        private final Map<String, String> previous;
+
+        private HeaderScope(Map<String, String> previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                threadHeaders.remove();
+            } else {
+                threadHeaders.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 响应体输入流处理器
+     * @param <T> 处理结果类型
+     */
+    @FunctionalInterface
+    public interface StreamHandler<T> {
+        T handle(InputStream in) throws IOException;
     }
 }
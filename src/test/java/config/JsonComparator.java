@@ -0,0 +1,410 @@
+package config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * JSON 结果比对器
+ * 实际值和预期值各解析一次后按树结构比对，字段顺序不影响结果；任一侧不是合法 JSON 时退化为字符串相等比较。
+ * <ul>
+ *     <li>忽略路径：JSON Pointer 形式，段可写 * 匹配任意字段名或数组下标，如 /data/list/*&#47;createTime</li>
+ *     <li>数值容差：两个数值之差的绝对值不超过容差即相等；1 与 1.0 视为相等</li>
+ *     <li>占位符：预期值为字符串 ${any}（字段存在即可）、${notNull}、${regex:正则}、${wildcard:通配符}（* 任意多个字符，? 单个字符）</li>
+ *     <li>JSONPath 子集匹配：预期值为对象且所有键都以 $ 开头时，每个键作为 JSONPath 在实际值上求值，只校验这些路径</li>
+ * </ul>
+ * matches 遇到第一处差异即返回，只需判断通过与否时使用；diff 收集全部差异用于展示。
+ * 配置完成后可在多个线程间共享。
+ */
+public class JsonComparator {
+
+    private static final String ANY = "${any}";
+    private static final String NOT_NULL = "${notNull}";
+    private static final String REGEX_PREFIX = "${regex:";
+    private static final String WILDCARD_PREFIX = "${wildcard:";
+    private static final String[][] NO_IGNORES = new String[0][];
+
+    private String[][] ignoredPaths = NO_IGNORES;
+    private double numericTolerance;
+    private boolean allowExtraFields;
+
+    // 占位符与 JSONPath 在各行之间重复出现，编译结果缓存复用
+    private final Map<String, Pattern> placeholderPatterns = new ConcurrentHashMap<>();
+    private final Map<String, JsonPath> jsonPaths = new ConcurrentHashMap<>();
+    private final Configuration jsonPathConfig = Configuration.builder()
+            .jsonProvider(new JacksonJsonNodeJsonProvider(JsonUtils.getMapper()))
+            .mappingProvider(new JacksonMappingProvider(JsonUtils.getMapper()))
+            .build();
+
+    /**
+     * 设置忽略的路径（覆盖之前的设置）
+     * @param pointers JSON Pointer 路径，如 /data/timestamp、/data/list/*&#47;id
+     */
+    public JsonComparator ignorePaths(String... pointers) {
+        String[][] compiled = new String[pointers.length][];
+        for (int i = 0; i < pointers.length; i++) {
+            compiled[i] = splitPointer(pointers[i]);
+        }
+        this.ignoredPaths = compiled;
+        return this;
+    }
+
+    /**
+     * @param tolerance 数值比较允许的最大绝对误差，默认 0
+     */
+    public JsonComparator numericTolerance(double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("数值容差不能为负数: " + tolerance);
+        }
+        this.numericTolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * @param allow 为 true 时实际值中多出的字段不算差异（对象按子集比对），默认 false
+     */
+    public JsonComparator allowExtraFields(boolean allow) {
+        this.allowExtraFields = allow;
+        return this;
+    }
+
+    /**
+     * 判断实际值是否与预期一致，遇到第一处差异即返回
+     * @param actual 实际响应
+     * @param expected 预期值
+     */
+    public boolean matches(String actual, String expected) {
+        JsonNode expectedNode = JsonUtils.readTreeOrNull(expected);
+        JsonNode actualNode = expectedNode == null ? null : JsonUtils.readTreeOrNull(actual);
+        if (actualNode == null) {
+            return actual != null && actual.equals(expected);
+        }
+        return matches(actualNode, expectedNode);
+    }
+
+    /**
+     * 判断已解析的实际值是否与预期一致，遇到第一处差异即返回
+     */
+    public boolean matches(JsonNode actual, JsonNode expected) {
+        return compareRoot(expected, actual, new Comparison(null, ignoredPaths.length > 0));
+    }
+
+    /**
+     * 收集全部差异
+     * @param actual 实际响应
+     * @param expected 预期值
+     * @return 差异描述（路径: 说明），一致时为空列表
+     */
+    public List<String> diff(String actual, String expected) {
+        JsonNode expectedNode = JsonUtils.readTreeOrNull(expected);
+        JsonNode actualNode = expectedNode == null ? null : JsonUtils.readTreeOrNull(actual);
+        if (actualNode == null) {
+            return actual != null && actual.equals(expected) ? Collections.emptyList()
+                    : Collections.singletonList("响应与预期值不一致（非 JSON，按文本比较）");
+        }
+        return diff(actualNode, expectedNode);
+    }
+
+    /**
+     * 收集已解析的实际值与预期之间的全部差异
+     */
+    public List<String> diff(JsonNode actual, JsonNode expected) {
+        List<String> mismatches = new ArrayList<>();
+        compareRoot(expected, actual, new Comparison(mismatches, true));
+        return mismatches;
+    }
+
+    private boolean compareRoot(JsonNode expected, JsonNode actual, Comparison c) {
+        if (isJsonPathAssertion(expected)) {
+            return compareJsonPaths(expected, actual, c);
+        }
+        return compareNode(expected, actual, c);
+    }
+
+    /**
+     * 预期值为非空对象且所有键都以 $ 开头
+     */
+    private boolean isJsonPathAssertion(JsonNode expected) {
+        if (!expected.isObject() || expected.isEmpty()) {
+            return false;
+        }
+        for (Iterator<String> names = expected.fieldNames(); names.hasNext(); ) {
+            if (!names.next().startsWith("$")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean compareJsonPaths(JsonNode expected, JsonNode actual, Comparison c) {
+        boolean matched = true;
+        for (Map.Entry<String, JsonNode> assertion : expected.properties()) {
+            String expression = assertion.getKey();
+            JsonNode value;
+            try {
+                Object result = jsonPaths.computeIfAbsent(expression, JsonPath::compile).read(actual, jsonPathConfig);
+                value = result instanceof JsonNode ? (JsonNode) result : JsonUtils.getMapper().valueToTree(result);
+            } catch (PathNotFoundException e) {
+                value = null;
+            }
+            c.push(expression);
+            matched &= compareNode(assertion.getValue(), value, c);
+            c.pop();
+            if (!matched && !c.collecting()) {
+                return false;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * @param actual 实际节点，字段不存在时为 null
+     */
+    private boolean compareNode(JsonNode expected, JsonNode actual, Comparison c) {
+        if (expected.isTextual()) {
+            String text = expected.textValue();
+            if (text.startsWith("${") && text.endsWith("}")) {
+                Boolean placeholder = matchPlaceholder(text, actual);
+                if (placeholder != null) {
+                    return placeholder || c.mismatch("不满足 " + text + "，实际 " + actual);
+                }
+            }
+        }
+        if (actual == null) {
+            return c.mismatch("缺少字段，预期 " + expected);
+        }
+        if (expected.isNumber() && actual.isNumber()) {
+            return numbersEqual(expected, actual) || c.mismatch("预期 " + expected + "，实际 " + actual);
+        }
+        if (expected.getNodeType() != actual.getNodeType()) {
+            return c.mismatch("类型不一致，预期 " + expected.getNodeType() + "，实际 " + actual.getNodeType());
+        }
+        if (expected.isObject()) {
+            return compareObject(expected, actual, c);
+        }
+        if (expected.isArray()) {
+            return compareArray(expected, actual, c);
+        }
+        return expected.equals(actual) || c.mismatch("预期 " + expected + "，实际 " + actual);
+    }
+
+    private boolean compareObject(JsonNode expected, JsonNode actual, Comparison c) {
+        boolean matched = true;
+        int present = 0;
+        for (Map.Entry<String, JsonNode> field : expected.properties()) {
+            JsonNode value = actual.get(field.getKey());
+            if (value != null) {
+                present++;
+            }
+            c.push(field.getKey());
+            if (!c.isIgnored(ignoredPaths)) {
+                matched &= compareNode(field.getValue(), value, c);
+            }
+            c.pop();
+            if (!matched && !c.collecting()) {
+                return false;
+            }
+        }
+
+        // 预期中的字段在实际值中都存在且数量相同，说明没有多余字段
+        if (allowExtraFields || present == actual.size()) {
+            return matched;
+        }
+        for (Map.Entry<String, JsonNode> field : actual.properties()) {
+            if (expected.has(field.getKey())) {
+                continue;
+            }
+            c.push(field.getKey());
+            if (!c.isIgnored(ignoredPaths)) {
+                matched = c.mismatch("多余字段，实际 " + field.getValue());
+            }
+            c.pop();
+            if (!matched && !c.collecting()) {
+                return false;
+            }
+        }
+        return matched;
+    }
+
+    private boolean compareArray(JsonNode expected, JsonNode actual, Comparison c) {
+        if (expected.size() != actual.size()) {
+            return c.mismatch("数组长度不一致，预期 " + expected.size() + "，实际 " + actual.size());
+        }
+        boolean matched = true;
+        for (int i = 0; i < expected.size(); i++) {
+            c.push(i);
+            if (!c.isIgnored(ignoredPaths)) {
+                matched &= compareNode(expected.get(i), actual.get(i), c);
+            }
+            c.pop();
+            if (!matched && !c.collecting()) {
+                return false;
+            }
+        }
+        return matched;
+    }
+
+    private boolean numbersEqual(JsonNode expected, JsonNode actual) {
+        if (expected.isIntegralNumber() && actual.isIntegralNumber()) {
+            if (expected.canConvertToLong() && actual.canConvertToLong()) {
+                long e = expected.longValue();
+                long a = actual.longValue();
+                return e == a || (numericTolerance > 0 && Math.abs((double) e - (double) a) <= numericTolerance);
+            }
+            if (expected.bigIntegerValue().equals(actual.bigIntegerValue())) {
+                return true;
+            }
+        }
+        if (numericTolerance == 0 && (expected.isBigDecimal() || actual.isBigDecimal())) {
+            return expected.decimalValue().compareTo(actual.decimalValue()) == 0;
+        }
+        return Math.abs(expected.doubleValue() - actual.doubleValue()) <= numericTolerance;
+    }
+
+    /**
+     * @return 占位符是否匹配；不是可识别的占位符时返回 null，按普通字符串比较
+     */
+    private Boolean matchPlaceholder(String placeholder, JsonNode actual) {
+        if (ANY.equals(placeholder)) {
+            return actual != null;
+        }
+        if (NOT_NULL.equals(placeholder)) {
+            return actual != null && !actual.isNull();
+        }
+        if (!placeholder.startsWith(REGEX_PREFIX) && !placeholder.startsWith(WILDCARD_PREFIX)) {
+            return null;
+        }
+        Pattern pattern = placeholderPatterns.computeIfAbsent(placeholder, JsonComparator::compilePlaceholder);
+        if (actual == null) {
+            return false;
+        }
+        String text = actual.isValueNode() ? actual.asText() : actual.toString();
+        return pattern.matcher(text).matches();
+    }
+
+    private static Pattern compilePlaceholder(String placeholder) {
+        if (placeholder.startsWith(REGEX_PREFIX)) {
+            return Pattern.compile(placeholder.substring(REGEX_PREFIX.length(), placeholder.length() - 1));
+        }
+        String wildcard = placeholder.substring(WILDCARD_PREFIX.length(), placeholder.length() - 1);
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i < wildcard.length(); i++) {
+            char ch = wildcard.charAt(i);
+            if (ch == '*' || ch == '?') {
+                if (i > start) {
+                    regex.append(Pattern.quote(wildcard.substring(start, i)));
+                }
+                regex.append(ch == '*' ? ".*" : ".");
+                start = i + 1;
+            }
+        }
+        if (start < wildcard.length()) {
+            regex.append(Pattern.quote(wildcard.substring(start)));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * 按 JSON Pointer 规则拆分路径段（~1 为 /，~0 为 ~）
+     */
+    private static String[] splitPointer(String pointer) {
+        if (pointer.isEmpty() || "/".equals(pointer)) {
+            return new String[0];
+        }
+        if (pointer.charAt(0) != '/') {
+            throw new IllegalArgumentException("忽略路径必须是以 / 开头的 JSON Pointer: " + pointer);
+        }
+        String[] segments = pointer.substring(1).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = segments[i].replace("~1", "/").replace("~0", "~");
+        }
+        return segments;
+    }
+
+    /**
+     * 一次比对的状态：当前路径与收集到的差异
+     * 不收集差异且没有忽略路径时不维护路径，比对过程中不产生额外对象
+     */
+    private static final class Comparison {
+        private final List<String> mismatches;
+        private final boolean trackPath;
+        private String[] path;
+        private int depth;
+
+        private Comparison(List<String> mismatches, boolean trackPath) {
+            this.mismatches = mismatches;
+            this.trackPath = trackPath;
+            this.path = trackPath ? new String[16] : null;
+        }
+
+        private boolean collecting() {
+            return mismatches != null;
+        }
+
+        private void push(String segment) {
+            if (trackPath) {
+                if (depth == path.length) {
+                    path = Arrays.copyOf(path, depth * 2);
+                }
+                path[depth] = segment;
+            }
+            depth++;
+        }
+
+        private void push(int index) {
+            push(trackPath ? Integer.toString(index) : null);
+        }
+
+        private void pop() {
+            depth--;
+        }
+
+        private boolean isIgnored(String[][] ignoredPaths) {
+            for (String[] ignored : ignoredPaths) {
+                if (ignored.length != depth) {
+                    continue;
+                }
+                int i = 0;
+                while (i < depth && ("*".equals(ignored[i]) || ignored[i].equals(path[i]))) {
+                    i++;
+                }
+                if (i == depth) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 记录一处差异
+         * @return 总是 false，便于 return matched || c.mismatch(...)
+         */
+        private boolean mismatch(String message) {
+            if (mismatches != null) {
+                StringBuilder location = new StringBuilder();
+                for (int i = 0; i < depth; i++) {
+                    // JSONPath 断言的表达式作为首段原样输出
+                    if (i > 0 || !path[i].startsWith("$")) {
+                        location.append('/');
+                    }
+                    location.append(path[i]);
+                }
+                mismatches.add((location.length() == 0 ? "/" : location) + ": " + message);
+            }
+            return false;
+        }
+    }
+}
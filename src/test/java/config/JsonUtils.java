@@ -1,9 +1,20 @@
 package config;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * JSON 工具类，用于 Java 对象与 JSON 字符串之间的转换
  */
@@ -55,4 +66,79 @@ public class JsonUtils {
             return false;
         }
     }
+
+    /**
+     * 将 JSON 字符串解析为树结构
+     * @return 根节点，不是合法 JSON 时返回 null
+     */
+    public static JsonNode readTreeOrNull(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            JsonNode node = mapper.readTree(json);
+            // 空白内容解析为 MissingNode，同样视为非 JSON
+            return node == null || node.isMissingNode() ? null : node;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 共享的 ObjectMapper，供同包内需要直接配置 JSON 组件的工具使用（如 JSONPath 的 Jackson 适配）
+     */
+    static ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * 基于输入流创建流式 JSON 解析器（共用同一个 ObjectMapper，可直接 readValueAs/readValueAsTree）
+     */
+    public static JsonParser createParser(InputStream in) {
+        try {
+            return mapper.createParser(in);
+        } catch (IOException e) {
+            throw new RuntimeException("创建JSON解析器失败", e);
+        }
+    }
+
+    /**
+     * 流式读取 JSON 中指定路径的值，只在内存中保留命中的子树，其余部分边读边跳过
+     * @param in JSON 输入流（由调用方负责关闭）
+     * @param pointers JSON Pointer 路径，如 /data/total、/data/list/0/id
+     * @return 路径到节点的映射，未命中的路径不出现在结果中
+     */
+    public static Map<String, JsonNode> readPaths(InputStream in, Collection<String> pointers) throws IOException {
+        Set<String> remaining = new HashSet<>(pointers);
+        Map<String, JsonNode> result = new LinkedHashMap<>();
+
+        try (JsonParser parser = mapper.createParser(in)) {
+            JsonToken token;
+            while (!remaining.isEmpty() && (token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME || token.isStructEnd()) {
+                    continue;
+                }
+
+                String pointer = parser.getParsingContext().pathAsPointer().toString();
+                if (remaining.remove(pointer)) {
+                    // 命中路径：只把这一棵子树读入内存
+                    result.put(pointer, mapper.readTree(parser));
+                } else if (token.isStructStart() && !isAncestorOfAny(pointer, remaining)) {
+                    // 子树中不包含任何目标路径，直接跳过
+                    parser.skipChildren();
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isAncestorOfAny(String pointer, Set<String> pointers) {
+        String prefix = pointer + "/";
+        for (String p : pointers) {
+            if (p.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
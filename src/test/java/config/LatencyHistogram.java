@@ -0,0 +1,156 @@
+package config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 延迟直方图（单位：微秒）
+ * 按 HdrHistogram 的对数-线性分桶：小于 256 微秒时每微秒一个桶，之后每个 2 的幂区间分为 128 个桶，
+ * 相对误差不超过 1/128（约 0.8%），可记录到约 19 小时；超出范围的值计入最后一个桶。
+ * 记录只做原子自增，不加锁，多个线程可以同时记录；读取（分位数等）得到的是近似一致的快照。
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int MAX_VALUE_BITS = 36;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_VALUE_BITS - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一次耗时
+     * @param micros 耗时（微秒），负数按 0 记录
+     */
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(value);
+        min.accumulateAndGet(value, Math::min);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * 记录一次耗时
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordNanos(long nanos) {
+        record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * 把另一个直方图的记录合并进来
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalMicros.addAndGet(other.totalMicros.get());
+        min.accumulateAndGet(other.min.get(), Math::min);
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * @return 最小值（微秒），没有记录时为 0
+     */
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    /**
+     * @return 最大值（微秒）
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return 平均值（微秒），没有记录时为 0
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) totalMicros.get() / count;
+    }
+
+    /**
+     * @return 所有记录之和（微秒）
+     */
+    public long getTotal() {
+        return totalMicros.get();
+    }
+
+    /**
+     * 分位数对应的值：至少 percentile% 的记录不大于该值（取所在桶的上界，不超过最大值）
+     * @param percentile 百分位，如 99.9
+     * @return 值（微秒），没有记录时为 0
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * @param micros 上界（微秒）
+     * @return 不大于上界的记录数；只计入整个桶都不大于上界的桶，上界落在桶内时该桶不计入（少计不超过一个桶宽的记录）
+     */
+    public long getCountAtOrBelow(long micros) {
+        if (micros < 0) {
+            return 0;
+        }
+        int last = indexOf(micros);
+        if (highestValueOf(last) > micros) {
+            last--;
+        }
+        long count = 0;
+        for (int i = 0; i <= last; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // 最高位之后保留 7 位，区间 [2^k, 2^(k+1)) 分为 128 个桶
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        int index = SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT
+                + (int) (value >>> shift) - HALF_SUB_BUCKET_COUNT;
+        return Math.min(index, BUCKET_COUNT - 1);
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,129 @@
+package config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 虚拟线程固定监控
+ * 虚拟线程在 synchronized 块内（如 MySQL 驱动、OkHttp 连接池中）阻塞时无法从载体线程上卸载，
+ * 固定时间过长会占满载体线程、拖慢所有用例。监控通过 JFR 的 jdk.VirtualThreadPinned 事件，
+ * 按发生位置（调用栈中第一个非 JDK 的方法）统计次数和时长，关闭时输出汇总。
+ * 需要逐次查看调用栈时，也可以在启动参数中加 -Djdk.tracePinnedThreads=short。
+ */
+public final class PinningMonitor implements AutoCloseable {
+
+    private static final int TOP_LOCATIONS = 10;
+
+    private final RecordingStream stream;
+    private final Map<String, Location> locations = new ConcurrentHashMap<>();
+
+    private PinningMonitor(RecordingStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * 开始监控
+     * @param thresholdMillis 固定超过该时间才记录
+     */
+    public static PinningMonitor start(long thresholdMillis) {
+        RecordingStream stream = new RecordingStream();
+        PinningMonitor monitor = new PinningMonitor(stream);
+        stream.enable("jdk.VirtualThreadPinned")
+                .withThreshold(Duration.ofMillis(thresholdMillis))
+                .withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", monitor::record);
+        stream.startAsync();
+        return monitor;
+    }
+
+    /**
+     * @return 不做任何监控的实例
+     */
+    public static PinningMonitor disabled() {
+        return new PinningMonitor(null);
+    }
+
+    /**
+     * @return 已记录的固定次数
+     */
+    public long getCount() {
+        long count = 0;
+        for (Location location : locations.values()) {
+            count += location.count.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return 发生位置 -> 固定次数
+     */
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        locations.forEach((name, location) -> counts.put(name, location.count.sum()));
+        return counts;
+    }
+
+    private void record(RecordedEvent event) {
+        Location location = locations.computeIfAbsent(locate(event.getStackTrace()), key -> new Location());
+        location.count.increment();
+        location.nanos.add(event.getDuration().toNanos());
+    }
+
+    private static String locate(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "未知位置";
+        }
+        String first = null;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String name = frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+            if (first == null) {
+                first = name;
+            }
+            if (!name.startsWith("java.") && !name.startsWith("jdk.") && !name.startsWith("sun.")) {
+                return name + ":" + frame.getLineNumber();
+            }
+        }
+        return first == null ? "未知位置" : first;
+    }
+
+    /**
+     * 停止监控（处理完已产生的事件），有固定时输出汇总
+     */
+    @Override
+    public void close() {
+        if (stream == null) {
+            return;
+        }
+        stream.stop();
+        stream.close();
+
+        if (locations.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Location>> sorted = new ArrayList<>(locations.entrySet());
+        sorted.sort((a, b) -> Long.compare(b.getValue().nanos.sum(), a.getValue().nanos.sum()));
+        System.out.println("虚拟线程固定 " + getCount() + " 次，按总时长排序：");
+        for (Map.Entry<String, Location> entry : sorted.subList(0, Math.min(TOP_LOCATIONS, sorted.size()))) {
+            Location location = entry.getValue();
+            System.out.println("  " + entry.getKey() + "：" + location.count.sum() + " 次，共 "
+                    + location.nanos.sum() / 1_000_000 + " ms");
+        }
+    }
+
+    private static final class Location {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+}
@@ -0,0 +1,13 @@
+package config.databaseUtils;
+
+/**
+ * 批量执行进度监听器，每提交完一个分块回调一次
+ */
+@FunctionalInterface
+public interface BatchProgressListener {
+    /**
+     * @param processed 已执行的参数组数
+     * @param total 参数组总数
+     */
+    void onProgress(int processed, int total);
+}
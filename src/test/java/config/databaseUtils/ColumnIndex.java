@@ -0,0 +1,85 @@
+package config.databaseUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 查询结果的列头，同一结果集的所有行共享一个实例
+ */
+public final class ColumnIndex {
+
+    private final String[] labels;
+    private final Map<String, Integer> positions;
+    private final String[] keys;
+    private final int[] keyPositions;
+
+    public ColumnIndex(String[] labels) {
+        this.labels = labels.clone();
+        this.positions = new LinkedHashMap<>(labels.length * 2);
+        for (int i = 0; i < labels.length; i++) {
+            // 列名重复时保留最后一列，与逐列 put 到 HashMap 的结果一致
+            positions.put(labels[i], i);
+        }
+        this.keys = new String[positions.size()];
+        this.keyPositions = new int[positions.size()];
+        int k = 0;
+        for (Map.Entry<String, Integer> entry : positions.entrySet()) {
+            keys[k] = entry.getKey();
+            keyPositions[k] = entry.getValue();
+            k++;
+        }
+    }
+
+    /**
+     * 列数
+     */
+    public int size() {
+        return labels.length;
+    }
+
+    /**
+     * 去重后的列名数，即按列名访问时的键数
+     */
+    public int keyCount() {
+        return keys.length;
+    }
+
+    /**
+     * 第 k 个去重后的列名（按首次出现的顺序）
+     */
+    public String keyAt(int k) {
+        return keys[k];
+    }
+
+    /**
+     * 第 k 个去重后的列名所对应的列下标
+     */
+    public int positionOfKey(int k) {
+        return keyPositions[k];
+    }
+
+    /**
+     * 列名（按查询列顺序）
+     */
+    public List<String> getLabels() {
+        return Collections.unmodifiableList(Arrays.asList(labels));
+    }
+
+    /**
+     * 第 i 列的列名（从 0 开始）
+     */
+    public String labelAt(int i) {
+        return labels[i];
+    }
+
+    /**
+     * 列名对应的下标（从 0 开始），不存在时返回 -1
+     */
+    public int indexOf(Object label) {
+        Integer position = positions.get(label);
+        return position == null ? -1 : position;
+    }
+}
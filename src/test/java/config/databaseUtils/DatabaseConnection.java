@@ -7,6 +7,14 @@ public interface DatabaseConnection {
      * @return 数据库连接对象
      */
     java.sql.Connection connect();
+
+    /**
+     * 归还通过 connect() 获取的连接
+     * 单连接实现无需处理；连接池实现会把连接放回池中
+     * @param connection 数据库连接对象
+     */
+    default void release(java.sql.Connection connection) {
+    }
     
     /**
      * 关闭数据库连接
@@ -2,6 +2,7 @@ package config.databaseUtils;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * 数据库操作工具接口
@@ -25,6 +26,44 @@ public  interface DatabaseOperations {
      */
     List<Map<String, Object>> queryForList(String sql, Object... params);
 
+    /**
+     * 查询多条记录，返回紧凑的结果表（所有行共享列头，支持按列读取）
+     * @param sql 查询SQL语例
+     * @param params 查询参数
+     * @return 查询结果表
+     */
+    ResultTable queryForTable(String sql, Object... params);
+
+    /**
+     * 流式查询，逐行回调，结果集不会整体加载到内存
+     * 使用 MySQL 流式结果集，回调期间连接被独占，结束后资源自动释放
+     * @param sql 查询SQL语例
+     * @param handler 行处理器
+     * @param params 查询参数
+     * @return 处理的行数
+     */
+    long queryForEach(String sql, RowHandler handler, Object... params);
+
+    /**
+     * 流式查询（指定 fetchSize），逐行回调
+     * @param sql 查询SQL语例
+     * @param fetchSize 每次从服务端拉取的行数，Integer.MIN_VALUE 表示 MySQL 逐行流式读取
+     *                  （正数需要在连接参数中开启 useCursorFetch）
+     * @param handler 行处理器
+     * @param params 查询参数
+     * @return 处理的行数
+     */
+    long queryForEach(String sql, int fetchSize, RowHandler handler, Object... params);
+
+    /**
+     * 流式查询，返回惰性 Stream
+     * 必须在 try-with-resources 中使用，关闭 Stream 时释放结果集、语句和连接
+     * @param sql 查询SQL语例
+     * @param params 查询参数
+     * @return 行数据 Stream
+     */
+    Stream<Map<String, Object>> queryForStream(String sql, Object... params);
+
     /**
      * 插入数据
      * @param sql 插入SQL语句
@@ -73,6 +112,17 @@ public  interface DatabaseOperations {
      */
     int[] batchDelete(String sql, List<Object[]> batchArgs);
 
+    /**
+     * 分块批量执行（插入、更新、删除通用）
+     * 所有分块在同一个事务中执行，任一分块失败时整体回滚
+     * @param sql SQL语句
+     * @param batchArgs 批量参数列表
+     * @param chunkSize 每次提交给数据库的参数组数
+     * @param listener 进度监听器，可为 null
+     * @return 每组参数影响行数数组
+     */
+    int[] batchExecute(String sql, List<Object[]> batchArgs, int chunkSize, BatchProgressListener listener);
+
     /**
      * 执行任意SQL语句
      * @param sql SQL语句
@@ -81,6 +131,14 @@ public  interface DatabaseOperations {
      */
     int execute(String sql, Object... params);
 
+    /**
+     * 在同一连接、同一事务中依次执行多条SQL（不带参数），任一失败时整体回滚
+     * @param sqlList SQL语句列表
+     * @param listener 执行监听器，可为 null
+     * @return 每条SQL影响行数
+     */
+    int[] executeInTransaction(List<String> sqlList, SqlExecutionListener listener);
+
     /**
      * 检查连接是否有效
      * @return 连接状态
@@ -0,0 +1,92 @@
+package config.databaseUtils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 紧凑的行数据：值按列顺序保存在数组中，列名由共享的 {@link ColumnIndex} 提供
+ * 对外表现为 Map，按列名取值与 HashMap 一致（列名重复时取最后一列）；只能修改已有列的值，不能新增或删除列
+ * 按列下标取值时每一列都可访问，包括被同名列覆盖的列
+ */
+public final class ResultRow extends AbstractMap<String, Object> {
+
+    private final ColumnIndex columns;
+    private final Object[] values;
+
+    public ResultRow(ColumnIndex columns, Object[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * 按列下标取值（从 0 开始）
+     */
+    public Object get(int index) {
+        return values[index];
+    }
+
+    public ColumnIndex getColumns() {
+        return columns;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = columns.indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return columns.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = columns.indexOf(key);
+        if (index < 0) {
+            throw new UnsupportedOperationException("查询结果中不存在列: " + key);
+        }
+        Object old = values[index];
+        values[index] = value;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return columns.keyCount();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<Entry<String, Object>>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < columns.keyCount();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (next >= columns.keyCount()) {
+                            throw new NoSuchElementException();
+                        }
+                        int k = next++;
+                        return new SimpleImmutableEntry<>(columns.keyAt(k), values[columns.positionOfKey(k)]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return columns.keyCount();
+            }
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package config.databaseUtils;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 查询结果表：所有行共享一个列头，每行只保存一个值数组
+ * 对外表现为 List&lt;Map&lt;String, Object&gt;&gt;，同时支持按列读取
+ */
+public final class ResultTable extends AbstractList<Map<String, Object>> {
+
+    private final ColumnIndex columns;
+    private final List<ResultRow> rows = new ArrayList<>();
+
+    public ResultTable(ColumnIndex columns) {
+        this.columns = columns;
+    }
+
+    public ColumnIndex getColumns() {
+        return columns;
+    }
+
+    /**
+     * 追加一行，values 的顺序与列头一致
+     */
+    public void addRow(Object[] values) {
+        rows.add(new ResultRow(columns, values));
+    }
+
+    /**
+     * 按列名读取整列
+     * @param label 列名
+     * @return 该列所有行的值
+     */
+    public List<Object> getColumn(String label) {
+        int index = columns.indexOf(label);
+        if (index < 0) {
+            throw new IllegalArgumentException("查询结果中不存在列: " + label);
+        }
+        List<Object> column = new ArrayList<>(rows.size());
+        for (ResultRow row : rows) {
+            column.add(row.get(index));
+        }
+        return column;
+    }
+
+    @Override
+    public ResultRow get(int index) {
+        return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+}
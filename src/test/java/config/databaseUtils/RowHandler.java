@@ -0,0 +1,15 @@
+package config.databaseUtils;
+
+import java.util.Map;
+
+/**
+ * 流式查询的逐行处理器
+ */
+@FunctionalInterface
+public interface RowHandler {
+    /**
+     * 处理一行数据，方法返回后该行不再被引用
+     * @param row 列名到值的映射
+     */
+    void handle(Map<String, Object> row);
+}
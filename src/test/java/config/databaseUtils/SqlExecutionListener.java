@@ -0,0 +1,15 @@
+package config.databaseUtils;
+
+/**
+ * SQL 执行监听器，每条语句执行成功后回调一次
+ */
+@FunctionalInterface
+public interface SqlExecutionListener {
+    /**
+     * @param index 语句在本次执行列表中的下标（从 0 开始）
+     * @param sql SQL语句
+     * @param elapsedNanos 执行耗时（纳秒）
+     * @param updateCount 影响行数，查询语句为 0
+     */
+    void onExecuted(int index, String sql, long elapsedNanos, int updateCount);
+}
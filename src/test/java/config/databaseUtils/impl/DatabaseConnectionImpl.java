@@ -10,6 +10,8 @@ import java.util.Properties;
 
 public class DatabaseConnectionImpl implements DatabaseConnection {
 
+    private static final String JDBC_PROPERTY_PREFIX = "db.jdbc.";
+
     private Connection connection;
     private Properties dbProperties;
 
@@ -42,11 +44,9 @@ public class DatabaseConnectionImpl implements DatabaseConnection {
 
             String driver = dbProperties.getProperty("db.driver");
             String url = dbProperties.getProperty("db.url");
-            String username = dbProperties.getProperty("db.username");
-            String password = dbProperties.getProperty("db.password");
 
             Class.forName(driver);
-            connection = DriverManager.getConnection(url, username, password);
+            connection = DriverManager.getConnection(url, driverProperties(dbProperties));
             return connection;
         } catch (ClassNotFoundException e) {
             throw new RuntimeException("找不到数据库驱动类", e);
@@ -79,6 +79,24 @@ public class DatabaseConnectionImpl implements DatabaseConnection {
         }
     }
 
+    /**
+     * 组装传给 JDBC 驱动的连接属性：用户名、密码以及所有 db.jdbc.* 配置（去掉前缀），
+     * 如 db.jdbc.cachePrepStmts=true 会作为 cachePrepStmts=true 传给驱动
+     * @param dbProperties 数据库配置
+     * @return 驱动连接属性
+     */
+    static Properties driverProperties(Properties dbProperties) {
+        Properties info = new Properties();
+        for (String key : dbProperties.stringPropertyNames()) {
+            if (key.startsWith(JDBC_PROPERTY_PREFIX)) {
+                info.setProperty(key.substring(JDBC_PROPERTY_PREFIX.length()), dbProperties.getProperty(key));
+            }
+        }
+        info.setProperty("user", dbProperties.getProperty("db.username"));
+        info.setProperty("password", dbProperties.getProperty("db.password"));
+        return info;
+    }
+
     /**
      * 获取数据库配置属性
      * @return 配置属性
@@ -1,13 +1,22 @@
 package config.databaseUtils.impl;
 
+import config.databaseUtils.BatchProgressListener;
+import config.databaseUtils.ColumnIndex;
 import config.databaseUtils.DatabaseConnection;
 import config.databaseUtils.DatabaseOperations;
+import config.databaseUtils.ResultRow;
+import config.databaseUtils.ResultTable;
+import config.databaseUtils.RowHandler;
+import config.databaseUtils.SqlExecutionListener;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 数据库操作工具实现类
@@ -15,12 +24,27 @@ import java.util.Map;
  */
 public class DatabaseOperationsImpl implements DatabaseOperations {
 
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+    private static final int DEFAULT_BATCH_CHUNK_SIZE = 1000;
+
     private DatabaseConnection databaseConnection;
-    private Connection connection;
+    private final PreparedStatementCache statementCache;
+    private volatile int batchChunkSize = DEFAULT_BATCH_CHUNK_SIZE;
+    private volatile BatchProgressListener batchProgressListener;
 
     public DatabaseOperationsImpl(DatabaseConnection databaseConnection) {
+        this(databaseConnection, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * @param databaseConnection 数据库连接
+     * @param statementCacheSize 每个连接缓存的 PreparedStatement 数量，0 表示不缓存
+     */
+    public DatabaseOperationsImpl(DatabaseConnection databaseConnection, int statementCacheSize) {
         this.databaseConnection = databaseConnection;
-        this.connection = databaseConnection.connect();
+        this.statementCache = new PreparedStatementCache(statementCacheSize);
+        // 提前建立连接，配置错误时尽早失败
+        databaseConnection.release(databaseConnection.connect());
     }
 
     @Override
@@ -31,29 +55,92 @@ public class DatabaseOperationsImpl implements DatabaseOperations {
 
     @Override
     public List<Map<String, Object>> queryForList(String sql, Object... params) {
-        List<Map<String, Object>> result = new ArrayList<>();
+        return queryForTable(sql, params);
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+    @Override
+    public ResultTable queryForTable(String sql, Object... params) {
+        Connection connection = databaseConnection.connect();
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = statementCache.take(connection, sql);
             setParameters(pstmt, params);
             try (ResultSet rs = pstmt.executeQuery()) {
-                ResultSetMetaData metaData = rs.getMetaData();
-                int columnCount = metaData.getColumnCount();
-
+                ColumnIndex columns = columnIndex(rs.getMetaData());
+                ResultTable result = new ResultTable(columns);
                 while (rs.next()) {
-                    Map<String, Object> row = new HashMap<>();
-                    for (int i = 1; i <= columnCount; i++) {
-                        String columnName = metaData.getColumnLabel(i);
-                        Object value = rs.getObject(i);
-                        row.put(columnName, value);
-                    }
-                    result.add(row);
+                    result.addRow(readValues(rs, columns.size()));
                 }
+                return result;
             }
         } catch (SQLException e) {
             throw new RuntimeException("查询数据失败: " + e.getMessage(), e);
+        } finally {
+            recycle(connection, sql, pstmt);
         }
+    }
 
-        return result;
+    @Override
+    public long queryForEach(String sql, RowHandler handler, Object... params) {
+        return queryForEach(sql, Integer.MIN_VALUE, handler, params);
+    }
+
+    @Override
+    public long queryForEach(String sql, int fetchSize, RowHandler handler, Object... params) {
+        long count = 0;
+        Connection connection = databaseConnection.connect();
+        try (PreparedStatement pstmt = prepareStreaming(connection, sql, fetchSize)) {
+            setParameters(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ColumnIndex columns = columnIndex(rs.getMetaData());
+                while (rs.next()) {
+                    handler.handle(new ResultRow(columns, readValues(rs, columns.size())));
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("流式查询数据失败: " + e.getMessage(), e);
+        } finally {
+            databaseConnection.release(connection);
+        }
+        return count;
+    }
+
+    @Override
+    public Stream<Map<String, Object>> queryForStream(String sql, Object... params) {
+        Connection connection = databaseConnection.connect();
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            pstmt = prepareStreaming(connection, sql, Integer.MIN_VALUE);
+            setParameters(pstmt, params);
+            rs = pstmt.executeQuery();
+            ColumnIndex columns = columnIndex(rs.getMetaData());
+
+            ResultSet resultSet = rs;
+            Spliterator<Map<String, Object>> spliterator = new Spliterators.AbstractSpliterator<Map<String, Object>>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Map<String, Object>> action) {
+                    try {
+                        if (!resultSet.next()) {
+                            return false;
+                        }
+                        action.accept(new ResultRow(columns, readValues(resultSet, columns.size())));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new RuntimeException("流式查询数据失败: " + e.getMessage(), e);
+                    }
+                }
+            };
+
+            PreparedStatement statement = pstmt;
+            return StreamSupport.stream(spliterator, false)
+                    .onClose(() -> closeStreaming(connection, statement, resultSet));
+        } catch (SQLException | RuntimeException e) {
+            closeStreaming(connection, pstmt, rs);
+            throw new RuntimeException("流式查询数据失败: " + e.getMessage(), e);
+        }
     }
 
     @Override
@@ -73,17 +160,44 @@ public class DatabaseOperationsImpl implements DatabaseOperations {
 
     @Override
     public int[] batchInsert(String sql, List<Object[]> batchArgs) {
-        return executeBatch(sql, batchArgs);
+        return batchExecute(sql, batchArgs, batchChunkSize, batchProgressListener);
     }
 
     @Override
     public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
-        return executeBatch(sql, batchArgs);
+        return batchExecute(sql, batchArgs, batchChunkSize, batchProgressListener);
     }
 
     @Override
     public int[] batchDelete(String sql, List<Object[]> batchArgs) {
-        return executeBatch(sql, batchArgs);
+        return batchExecute(sql, batchArgs, batchChunkSize, batchProgressListener);
+    }
+
+    @Override
+    public int[] batchExecute(String sql, List<Object[]> batchArgs, int chunkSize, BatchProgressListener listener) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize 必须大于 0: " + chunkSize);
+        }
+        return executeBatch(sql, batchArgs, chunkSize, listener);
+    }
+
+    /**
+     * 设置 batchInsert/batchUpdate/batchDelete 的分块大小
+     * @param chunkSize 每次提交给数据库的参数组数
+     */
+    public void setBatchChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize 必须大于 0: " + chunkSize);
+        }
+        this.batchChunkSize = chunkSize;
+    }
+
+    /**
+     * 设置 batchInsert/batchUpdate/batchDelete 的进度监听器
+     * @param listener 进度监听器，null 表示不监听
+     */
+    public void setBatchProgressListener(BatchProgressListener listener) {
+        this.batchProgressListener = listener;
     }
 
     @Override
@@ -91,6 +205,43 @@ public class DatabaseOperationsImpl implements DatabaseOperations {
         return executeUpdate(sql, params);
     }
 
+    @Override
+    public int[] executeInTransaction(List<String> sqlList, SqlExecutionListener listener) {
+        int[] result = new int[sqlList.size()];
+
+        Connection connection = databaseConnection.connect();
+        Boolean autoCommit = null;
+        int index = 0;
+        try (Statement stmt = connection.createStatement()) {
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            for (; index < sqlList.size(); index++) {
+                String sql = sqlList.get(index);
+                long start = System.nanoTime();
+                // 使用 execute 而非 executeUpdate，数据准备中允许出现查询语句
+                boolean hasResultSet = stmt.execute(sql);
+                int updateCount = hasResultSet ? 0 : Math.max(stmt.getUpdateCount(), 0);
+                long elapsed = System.nanoTime() - start;
+
+                result[index] = updateCount;
+                if (listener != null) {
+                    listener.onExecuted(index, sql, elapsed, updateCount);
+                }
+            }
+
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            rollbackQuietly(connection);
+            String failed = index < sqlList.size() ? sqlList.get(index) : "";
+            throw new RuntimeException("第 " + (index + 1) + " 条SQL执行失败，事务已回滚: " + failed + "，" + e.getMessage(), e);
+        } finally {
+            restoreAutoCommit(connection, autoCommit);
+            databaseConnection.release(connection);
+        }
+    }
+
     @Override
     public boolean isConnected() {
         return databaseConnection.isConnected();
@@ -98,9 +249,38 @@ public class DatabaseOperationsImpl implements DatabaseOperations {
 
     @Override
     public void close() {
+        statementCache.clear();
+        // 套件共享的连接池忽略 close()，不会影响其他 DatabaseOperations
         databaseConnection.close();
     }
 
+    /**
+     * PreparedStatement 缓存命中次数
+     */
+    public long getStatementCacheHits() {
+        return statementCache.getHits();
+    }
+
+    /**
+     * PreparedStatement 缓存未命中次数
+     */
+    public long getStatementCacheMisses() {
+        return statementCache.getMisses();
+    }
+
+    /**
+     * 语句放回缓存并归还连接
+     * @param connection 数据库连接
+     * @param sql SQL语句
+     * @param pstmt 语句，获取失败时为 null
+     */
+    private void recycle(Connection connection, String sql, PreparedStatement pstmt) {
+        if (pstmt != null) {
+            statementCache.giveBack(connection, sql, pstmt);
+        }
+        databaseConnection.release(connection);
+    }
+
     /**
      * 执行更新操作（插入、更新、删除）
      * @param sql SQL语句
@@ -108,30 +288,137 @@ public class DatabaseOperationsImpl implements DatabaseOperations {
      * @return 影响行数
      */
     private int executeUpdate(String sql, Object... params) {
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        Connection connection = databaseConnection.connect();
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = statementCache.take(connection, sql);
             setParameters(pstmt, params);
             return pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("执行SQL失败: " + e.getMessage(), e);
+        } finally {
+            recycle(connection, sql, pstmt);
         }
     }
 
     /**
      * 执行批量操作
+     * 按分块调用 executeBatch，整个批次在一个事务中提交，失败时回滚
      * @param sql SQL语句
      * @param batchArgs 批量参数
-     * @return 每批影响行数数组
+     * @param chunkSize 分块大小
+     * @param listener 进度监听器，可为 null
+     * @return 每组参数影响行数数组
      */
-    private int[] executeBatch(String sql, List<Object[]> batchArgs) {
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+    private int[] executeBatch(String sql, List<Object[]> batchArgs, int chunkSize, BatchProgressListener listener) {
+        int total = batchArgs.size();
+        int[] result = new int[total];
+
+        Connection connection = databaseConnection.connect();
+        PreparedStatement pstmt = null;
+        Boolean autoCommit = null;
+        try {
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            pstmt = statementCache.take(connection, sql);
+            int processed = 0;
             for (Object[] params : batchArgs) {
                 setParameters(pstmt, params);
                 pstmt.addBatch();
+                processed++;
+
+                if (processed % chunkSize == 0 || processed == total) {
+                    int[] counts = pstmt.executeBatch();
+                    System.arraycopy(counts, 0, result, processed - counts.length, counts.length);
+                    if (listener != null) {
+                        listener.onProgress(processed, total);
+                    }
+                }
+            }
+
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            rollbackQuietly(connection);
+            throw new RuntimeException("批量执行SQL失败，已回滚: " + e.getMessage(), e);
+        } finally {
+            restoreAutoCommit(connection, autoCommit);
+            recycle(connection, sql, pstmt);
+        }
+    }
+
+    private void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.err.println("回滚事务时出错: " + e.getMessage());
+        }
+    }
+
+    private void restoreAutoCommit(Connection connection, Boolean autoCommit) {
+        if (autoCommit == null) {
+            return;
+        }
+        try {
+            connection.setAutoCommit(autoCommit);
+        } catch (SQLException e) {
+            System.err.println("恢复自动提交时出错: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 创建流式读取的语句（只进、只读），不走语句缓存
+     * @param connection 数据库连接
+     * @param sql SQL语句
+     * @param fetchSize 拉取行数，Integer.MIN_VALUE 为 MySQL 逐行流式
+     * @return 语句
+     * @throws SQLException SQL异常
+     */
+    private PreparedStatement prepareStreaming(Connection connection, String sql, int fetchSize) throws SQLException {
+        PreparedStatement pstmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(fetchSize);
+        return pstmt;
+    }
+
+    /**
+     * 依次关闭结果集、语句并归还连接
+     */
+    private void closeStreaming(Connection connection, PreparedStatement pstmt, ResultSet rs) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (pstmt != null) {
+                pstmt.close();
             }
-            return pstmt.executeBatch();
         } catch (SQLException e) {
-            throw new RuntimeException("批量执行SQL失败: " + e.getMessage(), e);
+            System.err.println("关闭流式查询资源时出错: " + e.getMessage());
+        } finally {
+            databaseConnection.release(connection);
+        }
+    }
+
+    /**
+     * 读取列头（每个结果集只读取一次，所有行共享）
+     */
+    private ColumnIndex columnIndex(ResultSetMetaData metaData) throws SQLException {
+        String[] labels = new String[metaData.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+        return new ColumnIndex(labels);
+    }
+
+    /**
+     * 读取当前行的值
+     */
+    private Object[] readValues(ResultSet rs, int columnCount) throws SQLException {
+        Object[] values = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            values[i] = rs.getObject(i + 1);
         }
+        return values;
     }
 
     /**
@@ -0,0 +1,369 @@
+package config.databaseUtils.impl;// PooledDatabaseConnectionImpl.java
+import config.databaseUtils.DatabaseConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接池实现的数据库连接
+ * 整个测试套件共享一个实例（{@link #getInstance()}），connect() 从池中借出连接，release() 归还。
+ * 共享实例归整个套件所有，close() 不会关闭它（各 DatabaseOperations 关闭时只释放自己的资源），JVM 退出时统一关闭；
+ * 通过构造方法创建的独立连接池由创建者负责 close()。
+ * 配置项（config/database.properties）：
+ * db.minPoolSize / db.maxPoolSize 最小/最大连接数，
+ * db.validationQuery 校验SQL（为空时使用 Connection.isValid），
+ * db.idleTimeoutSeconds 空闲连接回收时间，
+ * db.leakDetectionThresholdSeconds 连接借出超过该时间未归还时打印借出位置（0 表示关闭），
+ * db.borrowTimeoutSeconds 获取连接的最长等待时间
+ */
+public class PooledDatabaseConnectionImpl implements DatabaseConnection {
+
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    private static volatile PooledDatabaseConnectionImpl instance;
+    // 关闭共享实例的 JVM 钩子，只注册一次
+    private static boolean shutdownHookRegistered;
+
+    private final Properties dbProperties;
+    private final int minPoolSize;
+    private final int maxPoolSize;
+    private final String validationQuery;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final long borrowTimeoutMillis;
+
+    // 空闲连接（后进先出，最近使用的连接优先借出，冷连接自然被回收）
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    // 已借出连接
+    private final Map<Connection, PooledEntry> borrowed = new ConcurrentHashMap<>();
+    // 控制连接总数不超过 maxPoolSize
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    // 是否为套件共享实例
+    private final boolean shared;
+    private volatile boolean closed;
+
+    /**
+     * 获取套件共享的连接池实例
+     * @return 连接池
+     */
+    public static PooledDatabaseConnectionImpl getInstance() {
+        PooledDatabaseConnectionImpl pool = instance;
+        if (pool == null || pool.closed) {
+            synchronized (PooledDatabaseConnectionImpl.class) {
+                pool = instance;
+                if (pool == null || pool.closed) {
+                    pool = new PooledDatabaseConnectionImpl(loadDatabaseProperties(), true);
+                    instance = pool;
+                    if (!shutdownHookRegistered) {
+                        Runtime.getRuntime().addShutdownHook(
+                                new Thread(PooledDatabaseConnectionImpl::shutdownShared, "db-pool-shutdown"));
+                        shutdownHookRegistered = true;
+                    }
+                }
+            }
+        }
+        return pool;
+    }
+
+    public PooledDatabaseConnectionImpl() {
+        this(loadDatabaseProperties());
+    }
+
+    public PooledDatabaseConnectionImpl(Properties dbProperties) {
+        this(dbProperties, false);
+    }
+
+    private PooledDatabaseConnectionImpl(Properties dbProperties, boolean shared) {
+        this.dbProperties = dbProperties;
+        this.shared = shared;
+        this.maxPoolSize = getInt("db.maxPoolSize", 10);
+        this.minPoolSize = Math.min(getInt("db.minPoolSize", 0), maxPoolSize);
+        this.validationQuery = dbProperties.getProperty("db.validationQuery", "").trim();
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(getInt("db.idleTimeoutSeconds", 600));
+        this.leakThresholdMillis = TimeUnit.SECONDS.toMillis(getInt("db.leakDetectionThresholdSeconds", 0));
+        this.borrowTimeoutMillis = TimeUnit.SECONDS.toMillis(getInt("db.borrowTimeoutSeconds", 30));
+        this.permits = new Semaphore(maxPoolSize, true);
+
+        try {
+            Class.forName(dbProperties.getProperty("db.driver"));
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("找不到数据库驱动类", e);
+        }
+
+        long interval = Math.max(1, getInt("db.evictionIntervalSeconds", 30));
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 加载数据库配置文件
+     */
+    private static Properties loadDatabaseProperties() {
+        Properties properties = new Properties();
+        try (InputStream input = PooledDatabaseConnectionImpl.class.getClassLoader()
+                .getResourceAsStream("config/database.properties")) {
+            if (input == null) {
+                throw new RuntimeException("无法找到数据库配置文件: config/database.properties");
+            }
+            properties.load(input);
+        } catch (IOException e) {
+            throw new RuntimeException("读取数据库配置文件失败", e);
+        }
+        return properties;
+    }
+
+    @Override
+    public Connection connect() {
+        if (closed) {
+            throw new IllegalStateException("连接池已关闭");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("获取数据库连接超时（已借出 " + borrowed.size() + " / " + maxPoolSize + "）");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("获取数据库连接被中断", e);
+        }
+
+        try {
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                // 刚归还的连接跳过校验，减少一次往返
+                if (System.currentTimeMillis() - entry.lastUsedAt < VALIDATION_BYPASS_MILLIS || validate(entry.connection)) {
+                    break;
+                }
+                closeQuietly(entry.connection);
+            }
+            if (entry == null) {
+                entry = new PooledEntry(createConnection());
+            }
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrowSite = leakThresholdMillis > 0 ? new Exception("连接借出位置") : null;
+            entry.leakReported = false;
+            borrowed.put(entry.connection, entry);
+            return entry.connection;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        PooledEntry entry = borrowed.remove(connection);
+        if (entry == null) {
+            return;
+        }
+        try {
+            if (closed || connection.isClosed()) {
+                closeQuietly(connection);
+                return;
+            }
+            // 还原被借用方修改过的事务状态，避免影响下一个借用者
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            entry.lastUsedAt = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 关闭连接池；套件共享实例不在此关闭，由 JVM 退出时关闭
+     */
+    @Override
+    public void close() {
+        if (!shared) {
+            shutdown();
+        }
+    }
+
+    /**
+     * JVM 退出时关闭当前的共享实例
+     */
+    private static void shutdownShared() {
+        PooledDatabaseConnectionImpl pool = instance;
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 关闭所有连接并停止后台任务
+     */
+    private void shutdown() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            closeQuietly(entry.connection);
+        }
+        for (Connection connection : borrowed.keySet()) {
+            closeQuietly(connection);
+        }
+        borrowed.clear();
+    }
+
+    @Override
+    public boolean isConnected() {
+        if (closed) {
+            return false;
+        }
+        Connection connection = null;
+        try {
+            connection = connect();
+            return validate(connection);
+        } catch (RuntimeException e) {
+            return false;
+        } finally {
+            release(connection);
+        }
+    }
+
+    /**
+     * 当前空闲连接数
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * 当前借出连接数
+     */
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    /**
+     * 获取数据库配置属性
+     * @return 配置属性
+     */
+    protected Properties getDbProperties() {
+        return dbProperties;
+    }
+
+    /**
+     * 定时任务：回收超时空闲连接、补足最小连接数、检测连接泄漏
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledEntry> it = idle.descendingIterator();
+        while (it.hasNext() && idle.size() > minPoolSize) {
+            PooledEntry entry = it.next();
+            if (now - entry.lastUsedAt > idleTimeoutMillis && idle.removeFirstOccurrence(entry)) {
+                closeQuietly(entry.connection);
+            }
+        }
+
+        while (!closed && idle.size() + borrowed.size() < minPoolSize && permits.tryAcquire()) {
+            try {
+                PooledEntry entry = new PooledEntry(createConnection());
+                idle.offerLast(entry);
+            } catch (RuntimeException e) {
+                System.err.println("补充数据库连接失败: " + e.getMessage());
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+
+        if (leakThresholdMillis > 0) {
+            for (PooledEntry entry : borrowed.values()) {
+                if (!entry.leakReported && now - entry.borrowedAt > leakThresholdMillis) {
+                    entry.leakReported = true;
+                    System.err.println("疑似数据库连接泄漏：连接已借出 " + (now - entry.borrowedAt) + " ms 未归还");
+                    if (entry.borrowSite != null) {
+                        entry.borrowSite.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    private Connection createConnection() {
+        try {
+            return DriverManager.getConnection(
+                    dbProperties.getProperty("db.url"),
+                    DatabaseConnectionImpl.driverProperties(dbProperties));
+        } catch (SQLException e) {
+            throw new RuntimeException("数据库连接失败", e);
+        }
+    }
+
+    private boolean validate(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (validationQuery.isEmpty()) {
+                return connection.isValid(5);
+            }
+            try (Statement stmt = connection.createStatement()) {
+                stmt.setQueryTimeout(5);
+                stmt.execute(validationQuery);
+                return true;
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("关闭数据库连接时出错: " + e.getMessage());
+        }
+    }
+
+    private int getInt(String key, int defaultValue) {
+        String value = dbProperties.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * 池中的连接及其使用状态
+     */
+    private static class PooledEntry {
+        private final Connection connection;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+        private volatile long borrowedAt;
+        private volatile Exception borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledEntry(Connection connection) {
+            this.connection = connection;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package config.databaseUtils.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PreparedStatement 缓存
+ * 按连接分别维护一个以 SQL 文本为键的 LRU 缓存，超出容量时关闭最久未使用的语句。
+ * 语句在使用期间从缓存中取出，用完再放回，同一语句不会被两个线程同时使用。
+ */
+class PreparedStatementCache {
+
+    private final int maxSizePerConnection;
+    private final Map<Connection, Map<String, PreparedStatement>> caches = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    PreparedStatementCache(int maxSizePerConnection) {
+        this.maxSizePerConnection = maxSizePerConnection;
+    }
+
+    /**
+     * 取出缓存的语句，未命中时新建
+     * @param connection 数据库连接
+     * @param sql SQL语句
+     * @return 可直接设置参数的语句
+     */
+    PreparedStatement take(Connection connection, String sql) throws SQLException {
+        if (maxSizePerConnection > 0) {
+            Map<String, PreparedStatement> cache = cacheFor(connection);
+            PreparedStatement cached;
+            synchronized (cache) {
+                cached = cache.remove(sql);
+            }
+            if (cached != null && !cached.isClosed()) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        return connection.prepareStatement(sql);
+    }
+
+    /**
+     * 语句使用完毕后放回缓存；缓存已满或已有同 SQL 语句时直接关闭
+     * @param connection 数据库连接
+     * @param sql SQL语句
+     * @param pstmt 语句
+     */
+    void giveBack(Connection connection, String sql, PreparedStatement pstmt) {
+        try {
+            if (maxSizePerConnection <= 0 || pstmt.isClosed() || connection.isClosed()) {
+                pstmt.close();
+                return;
+            }
+            pstmt.clearParameters();
+            pstmt.clearBatch();
+
+            Map<String, PreparedStatement> cache = cacheFor(connection);
+            PreparedStatement displaced;
+            synchronized (cache) {
+                displaced = cache.putIfAbsent(sql, pstmt);
+            }
+            if (displaced != null) {
+                pstmt.close();
+            }
+        } catch (SQLException e) {
+            closeQuietly(pstmt);
+        }
+    }
+
+    /**
+     * 关闭所有缓存的语句
+     */
+    void clear() {
+        for (Map<String, PreparedStatement> cache : caches.values()) {
+            closeAll(cache);
+        }
+        caches.clear();
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    private Map<String, PreparedStatement> cacheFor(Connection connection) {
+        Map<String, PreparedStatement> cache = caches.get(connection);
+        if (cache == null) {
+            // 新连接出现时顺带清理已关闭连接（如被连接池回收）的缓存
+            purgeClosedConnections();
+            cache = caches.computeIfAbsent(connection, c -> new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > maxSizePerConnection) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            });
+        }
+        return cache;
+    }
+
+    private void purgeClosedConnections() {
+        Iterator<Map.Entry<Connection, Map<String, PreparedStatement>>> it = caches.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Connection, Map<String, PreparedStatement>> entry = it.next();
+            try {
+                if (entry.getKey().isClosed()) {
+                    it.remove();
+                    closeAll(entry.getValue());
+                }
+            } catch (SQLException e) {
+                it.remove();
+                closeAll(entry.getValue());
+            }
+        }
+    }
+
+    private void closeAll(Map<String, PreparedStatement> cache) {
+        List<PreparedStatement> statements;
+        synchronized (cache) {
+            statements = new ArrayList<>(cache.values());
+            cache.clear();
+        }
+        for (PreparedStatement pstmt : statements) {
+            closeQuietly(pstmt);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            // 忽略关闭异常
+        }
+    }
+}
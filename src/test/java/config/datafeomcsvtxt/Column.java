@@ -0,0 +1,20 @@
+package config.datafeomcsvtxt;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 把数据文件中的列绑定到测试方法参数上
+ * 未标注的参数按位置对应第 N 列
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Column {
+
+    /**
+     * 表头中的列名
+     */
+    String value();
+}
@@ -0,0 +1,34 @@
+package config.datafeomcsvtxt;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明测试方法使用的数据文件，配合 DataDrivenUtil 的 "fileData" 数据提供者使用
+ * <pre>
+ * &#64;DataFile("testdata/login_data.csv")
+ * &#64;Test(dataProvider = "fileData", dataProviderClass = DataDrivenUtil.class)
+ * public void login(&#64;Column("username") String username, &#64;Column("expected_code") int code) { ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface DataFile {
+
+    /**
+     * 文件路径（先从 ClassPath 查找，再按文件系统路径查找）
+     */
+    String value();
+
+    /**
+     * 分隔符（正则表达式），为空时按扩展名选择：.csv 为 ","，其它为 "\\|"
+     */
+    String delimiter() default "";
+
+    /**
+     * 文件编码
+     */
+    String encoding() default "UTF-8";
+}
@@ -0,0 +1,289 @@
+package config.datafeomcsvtxt;
+
+import config.datafeomcsvtxt.imp.FileDataConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 进程内共享的数据文件解析结果缓存
+ * 以 文件路径 + 编码 + 分隔符 + 解析规则 为键，缓存不可修改的数据行；多个测试类读取同一文件时只解析一次。
+ * 文件系统中的文件（含以目录形式存在的 ClassPath 资源）每次取用时比较数据文件及其 .schema 文件的修改时间和大小，任一变化后重新解析；
+ * jar 包内的资源不会变化，不做检查。
+ * 缓存的总行数超过上限时按最近最少使用淘汰；同一文件同时被多个线程读取时只解析一次。
+ * 上限通过 filedata.properties 的 file.cache.maxRows、file.cache.maxFiles 配置，maxRows 为 0 时不缓存。
+ */
+public final class FileDataCache {
+
+    private static volatile int maxRows = FileDataConfig.getCacheMaxRows();
+    private static volatile int maxEntries = FileDataConfig.getCacheMaxFiles();
+
+    private static final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<Key, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private static long cachedRows;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private FileDataCache() {
+    }
+
+    /**
+     * 设置缓存上限
+     * @param rows 缓存的总行数上限，为 0 时不缓存
+     * @param files 缓存的文件数上限
+     */
+    public static synchronized void setLimits(int rows, int files) {
+        maxRows = Math.max(0, rows);
+        maxEntries = Math.max(0, files);
+        evict();
+    }
+
+    /**
+     * 取缓存的解析结果，不存在或文件已变化时调用 loader 解析
+     * @param fileName 文件名（ClassPath 或文件系统路径）
+     * @param encoding 文件编码
+     * @param delimiter 分隔符
+     * @param rules 解析规则标识（不同的提供者对同一文件的解析结果不同）
+     * @param loader 解析文件
+     * @return 不可修改的数据行
+     */
+    public static List<Map<String, Object>> get(String fileName, String encoding, String delimiter, String rules,
+                                                Supplier<List<Map<String, Object>>> loader) {
+        if (maxRows == 0 || maxEntries == 0) {
+            return freeze(loader.get());
+        }
+
+        Key key = new Key(fileName, encoding, delimiter, rules);
+        Stamp stamp = stampOf(fileName);
+        Entry cached;
+        synchronized (FileDataCache.class) {
+            cached = entries.get(key);
+        }
+        if (cached != null && cached.stamp.equals(stamp)) {
+            hits.incrementAndGet();
+            return cached.rows;
+        }
+
+        // 同一文件只由一个线程解析，其它线程等待结果
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        CompletableFuture<Entry> inFlight = loading.putIfAbsent(key, created);
+        if (inFlight != null) {
+            try {
+                Entry loaded = inFlight.join();
+                hits.incrementAndGet();
+                return loaded.rows;
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        misses.incrementAndGet();
+        try {
+            Entry loaded = new Entry(stamp, freeze(loader.get()));
+            put(key, loaded);
+            created.complete(loaded);
+            return loaded.rows;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, created);
+        }
+    }
+
+    /**
+     * 移除某个文件的所有缓存
+     */
+    public static synchronized void invalidate(String fileName) {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> entry = it.next();
+            if (entry.getKey().fileName.equals(fileName)) {
+                cachedRows -= entry.getValue().rows.size();
+                it.remove();
+            }
+        }
+    }
+
+    public static synchronized void clear() {
+        entries.clear();
+        cachedRows = 0;
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static synchronized int size() {
+        return entries.size();
+    }
+
+    private static synchronized void put(Key key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            cachedRows -= previous.rows.size();
+        }
+        cachedRows += entry.rows.size();
+        evict();
+    }
+
+    /**
+     * 按最近最少使用淘汰，直到总行数和文件数都不超过上限（刚放入的单个大文件超过上限时也会被淘汰）
+     */
+    private static void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while ((cachedRows > maxRows || entries.size() > maxEntries) && it.hasNext()) {
+            cachedRows -= it.next().rows.size();
+            it.remove();
+        }
+    }
+
+    private static List<Map<String, Object>> freeze(List<Map<String, Object>> rows) {
+        if (rows instanceof ReadOnly) {
+            return rows;
+        }
+        List<Map<String, Object>> frozen = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            frozen.add(Collections.unmodifiableMap(row));
+        }
+        return Collections.unmodifiableList(frozen);
+    }
+
+    /**
+     * 数据文件及其 .schema 文件（列类型声明，改变解析结果）的修改时间和大小
+     */
+    private static Stamp stampOf(String fileName) {
+        BasicFileAttributes data = attributesOf(fileName);
+        BasicFileAttributes schema = attributesOf(fileName + ".schema");
+        return new Stamp(data == null ? -1 : data.lastModifiedTime().toMillis(), data == null ? -1 : data.size(),
+                schema == null ? -1 : schema.lastModifiedTime().toMillis(), schema == null ? -1 : schema.size());
+    }
+
+    /**
+     * @return 文件属性；jar 包内的资源和不存在的文件返回 null
+     */
+    private static BasicFileAttributes attributesOf(String fileName) {
+        try {
+            Path path = null;
+            URL resource = FileDataCache.class.getClassLoader().getResource(fileName);
+            if (resource != null) {
+                if ("file".equals(resource.getProtocol())) {
+                    path = Paths.get(resource.toURI());
+                }
+            } else {
+                path = Paths.get(fileName);
+            }
+            if (path == null || !Files.isRegularFile(path)) {
+                return null;
+            }
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法读取文件属性: " + fileName, e);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 列表和行本身已不可修改（如二进制数据集的映射视图），缓存不再逐行包装
+     */
+    public interface ReadOnly {
+    }
+
+    private static final class Key {
+        private final String fileName;
+        private final String encoding;
+        private final String delimiter;
+        private final String rules;
+
+        private Key(String fileName, String encoding, String delimiter, String rules) {
+            this.fileName = fileName;
+            this.encoding = encoding;
+            this.delimiter = delimiter;
+            this.rules = rules;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return fileName.equals(other.fileName) && encoding.equals(other.encoding)
+                    && delimiter.equals(other.delimiter) && rules.equals(other.rules);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fileName, encoding, delimiter, rules);
+        }
+    }
+
+    /**
+     * 数据文件和 .schema 文件的修改时间、大小，不存在或在 jar 包内时为 -1
+     */
+    private static final class Stamp {
+        private final long lastModified;
+        private final long size;
+        private final long schemaLastModified;
+        private final long schemaSize;
+
+        private Stamp(long lastModified, long size, long schemaLastModified, long schemaSize) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.schemaLastModified = schemaLastModified;
+            this.schemaSize = schemaSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Stamp)) {
+                return false;
+            }
+            Stamp other = (Stamp) o;
+            return lastModified == other.lastModified && size == other.size
+                    && schemaLastModified == other.schemaLastModified && schemaSize == other.schemaSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModified, size, schemaLastModified, schemaSize);
+        }
+    }
+
+    private static final class Entry {
+        private final Stamp stamp;
+        private final List<Map<String, Object>> rows;
+
+        private Entry(Stamp stamp, List<Map<String, Object>> rows) {
+            this.stamp = stamp;
+            this.rows = rows;
+        }
+    }
+}
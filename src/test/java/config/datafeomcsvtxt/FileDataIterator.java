@@ -0,0 +1,147 @@
+package config.datafeomcsvtxt;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 惰性的 TestNG 数据提供者迭代器
+ * TestNG 每取一行才从文件中读取并解析一行，数据文件不需要整体加载到内存。
+ * 参数绑定在读取表头后计算一次：标注 {@link Column} 的参数按列名取值，未标注的按位置取值；
+ * 方法只有一个 Map 参数时传入整行（列名 -> 值）。
+ * 文本按参数类型转换（String、int/Integer、long/Long、double/Double、boolean/Boolean、BigDecimal），
+ * 空值和 null 转为 null，empty 转为空字符串。
+ */
+public class FileDataIterator implements Iterator<Object[]> {
+
+    private final FileRowReader reader;
+    private final String[] headers;
+    private final Class<?>[] parameterTypes;
+    // 参数下标 -> 列下标；为 null 时整行作为 Map 传入
+    private final int[] columnIndexes;
+
+    private FileDataIterator(FileRowReader reader, Method method) {
+        this.reader = reader;
+        this.headers = reader.getHeaders();
+        this.parameterTypes = method.getParameterTypes();
+        this.columnIndexes = bindColumns(method, headers);
+    }
+
+    /**
+     * 根据测试方法上的 {@link DataFile} 注解打开数据文件
+     * @param method 测试方法（TestNG 数据提供者可直接声明 Method 参数获得）
+     */
+    public static FileDataIterator forMethod(Method method) {
+        DataFile dataFile = method.getAnnotation(DataFile.class);
+        if (dataFile == null) {
+            throw new IllegalArgumentException("测试方法缺少 @DataFile 注解: " + method.getName());
+        }
+        String delimiter = dataFile.delimiter().isEmpty()
+                ? FileRowReader.defaultDelimiter(dataFile.value()) : dataFile.delimiter();
+        FileRowReader reader = FileRowReader.open(dataFile.value(), delimiter, dataFile.encoding());
+        try {
+            return new FileDataIterator(reader, method);
+        } catch (RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return reader.hasNext();
+    }
+
+    @Override
+    public Object[] next() {
+        String[] values = reader.next();
+        if (columnIndexes == null) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < headers.length; i++) {
+                row.put(headers[i], convert(valueAt(values, i), String.class, i));
+            }
+            return new Object[]{row};
+        }
+
+        Object[] args = new Object[columnIndexes.length];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            args[i] = convert(valueAt(values, columnIndexes[i]), parameterTypes[i], columnIndexes[i]);
+        }
+        return args;
+    }
+
+    /**
+     * 计算每个参数对应的列下标
+     */
+    private static int[] bindColumns(Method method, String[] headers) {
+        Parameter[] parameters = method.getParameters();
+        if (parameters.length == 1 && Map.class.isAssignableFrom(parameters[0].getType())) {
+            return null;
+        }
+
+        int[] indexes = new int[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Column column = parameters[i].getAnnotation(Column.class);
+            indexes[i] = column == null ? i : indexOf(headers, column.value());
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("数据文件中没有列 '" + column.value() + "'，方法: " + method.getName());
+            }
+        }
+        return indexes;
+    }
+
+    private static int indexOf(String[] headers, String name) {
+        for (int i = 0; i < headers.length; i++) {
+            if (headers[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String valueAt(String[] values, int index) {
+        return index < values.length ? values[index].trim() : "";
+    }
+
+    /**
+     * 按参数类型转换单元格文本
+     */
+    private Object convert(String value, Class<?> type, int column) {
+        if (value.isEmpty() || "null".equalsIgnoreCase(value)) {
+            if (type.isPrimitive()) {
+                throw new IllegalArgumentException(describe(column) + " 为空，不能传给 " + type.getName() + " 类型参数");
+            }
+            return null;
+        }
+        if ("empty".equalsIgnoreCase(value)) {
+            value = "";
+        }
+
+        try {
+            if (type == String.class || type == Object.class) {
+                return value;
+            } else if (type == int.class || type == Integer.class) {
+                return Integer.parseInt(value);
+            } else if (type == long.class || type == Long.class) {
+                return Long.parseLong(value);
+            } else if (type == double.class || type == Double.class) {
+                return Double.parseDouble(value);
+            } else if (type == boolean.class || type == Boolean.class) {
+                return Boolean.parseBoolean(value);
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(value);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(describe(column) + " 的值 '" + value + "' 不能转换为 " + type.getSimpleName(), e);
+        }
+        throw new IllegalArgumentException("不支持的参数类型: " + type.getName());
+    }
+
+    private String describe(int column) {
+        String name = column < headers.length ? headers[column] : "column" + column;
+        return reader.getFileName() + " 第 " + reader.getLineNumber() + " 行的列 '" + name + "'";
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Map;
 
 /**
  * 文件数据提供者接口
+ * 返回的数据列表为只读：同一文件的解析结果在进程内共享（见 {@link FileDataCache}）
  */
 public interface FileDataProviderFactory {
     /**
@@ -0,0 +1,160 @@
+package config.datafeomcsvtxt;
+
+import config.datafeomcsvtxt.imp.CsvLine;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+/**
+ * 逐行读取 CSV/TXT 数据文件，按需解析，不把整个文件读入内存
+ * 第一条有效行为表头；跳过空行和以 # 开头的注释行；分隔符为 "," 时支持引号包围的字段。
+ * 读到文件末尾时自动关闭文件，提前结束时需调用 close。
+ */
+public class FileRowReader implements Iterator<String[]>, AutoCloseable {
+
+    private final String fileName;
+    private final BufferedReader reader;
+    // 分隔符只编译一次；为 null 时按 CSV 引号规则解析
+    private final Pattern delimiterPattern;
+    private final String[] headers;
+    private String[] next;
+    private int lineNumber;
+    private int nextLineNumber;
+    private boolean closed;
+
+    private FileRowReader(String fileName, InputStream inputStream, String delimiter, String encoding) throws IOException {
+        this.fileName = fileName;
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, Charset.forName(encoding)));
+        this.delimiterPattern = ",".equals(delimiter) ? null : Pattern.compile(delimiter);
+        this.headers = readRecord();
+        if (headers != null) {
+            for (int i = 0; i < headers.length; i++) {
+                headers[i] = headers[i].trim();
+            }
+        }
+        this.next = readRecord();
+    }
+
+    /**
+     * 打开数据文件，先从 ClassPath 查找，找不到时按文件系统路径打开
+     * @param fileName 文件名
+     * @param delimiter 分隔符（正则表达式，如 "\\|"；"," 按 CSV 规则解析）
+     * @param encoding 文件编码
+     */
+    public static FileRowReader open(String fileName, String delimiter, String encoding) {
+        InputStream inputStream = FileRowReader.class.getClassLoader().getResourceAsStream(fileName);
+        try {
+            if (inputStream == null) {
+                inputStream = new FileInputStream(fileName);
+            }
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("File not found: " + fileName, e);
+        }
+        try {
+            return new FileRowReader(fileName, inputStream, delimiter, encoding);
+        } catch (IOException e) {
+            closeQuietly(inputStream);
+            throw new RuntimeException("Error reading file: " + fileName, e);
+        }
+    }
+
+    /**
+     * 按扩展名选择默认分隔符：.csv 为 ","，其它为 "\\|"
+     */
+    public static String defaultDelimiter(String fileName) {
+        return fileName.endsWith(".csv") ? "," : "\\|";
+    }
+
+    /**
+     * @return 表头（已去除首尾空白），空文件时为空数组
+     */
+    public String[] getHeaders() {
+        return headers == null ? new String[0] : headers.clone();
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return 最近一次 next 返回的记录所在行号（从 1 开始）
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public String[] next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        String[] current = next;
+        lineNumber = nextLineNumber;
+        try {
+            next = readRecord();
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Error reading file: " + fileName, e);
+        }
+        return current;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * 读取下一条有效记录，到达文件末尾时关闭文件并返回 null
+     */
+    private String[] readRecord() throws IOException {
+        if (closed) {
+            return null;
+        }
+        String line;
+        while ((line = reader.readLine()) != null) {
+            nextLineNumber++;
+            int start = firstNonWhitespace(line);
+            // 跳过空行和注释行（以#开头）
+            if (start == line.length() || line.charAt(start) == '#') {
+                continue;
+            }
+            return delimiterPattern == null ? CsvLine.split(line) : delimiterPattern.split(line, -1);
+        }
+        close();
+        return null;
+    }
+
+    private static int firstNonWhitespace(String line) {
+        int i = 0;
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // 忽略关闭异常
+        }
+    }
+}
@@ -2,19 +2,25 @@
 package config.datafeomcsvtxt.imp;
 
 
+import base.util.StreamingExcelReader;
+import config.datafeomcsvtxt.FileDataCache;
 import config.datafeomcsvtxt.FileDataProviderFactory;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 /**
  * 高级文件数据提供者，支持更多功能
@@ -61,6 +67,8 @@ public class AdvancedFileDataProvider implements FileDataProviderFactory {
             return readFromCSV(fileName, DEFAULT_CSV_DELIMITER, encoding);
         } else if (fileName.endsWith(".txt")) {
             return readFromTXT(fileName, DEFAULT_TXT_DELIMITER, encoding);
+        } else if (fileName.endsWith(".xlsx")) {
+            return readFromExcel(fileName);
         } else {
             throw new IllegalArgumentException("Unsupported file type: " + fileName);
         }
@@ -89,7 +97,62 @@ public class AdvancedFileDataProvider implements FileDataProviderFactory {
     }
 
     /**
-     * 读取文件的核心方法
+     * 从 xlsx 文件的第一个 Sheet 读取数据：第一个非空行为表头（可带类型声明），其后每行一条数据
+     * 单元格取格式化后的文本（与 Excel 中显示的一致），再按与 CSV 相同的规则转换
+     * @param fileName 文件名
+     * @return 数据列表
+     */
+    public List<Map<String, Object>> readFromExcel(String fileName) {
+        String rules = "AdvancedFileDataProvider:excel";
+        return FileDataCache.get(fileName, "", "", rules,
+                () -> BinaryDataSet.loadOrCompile(fileName, rules, () -> parseExcel(fileName)));
+    }
+
+    private List<Map<String, Object>> parseExcel(String fileName) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        RowSchema[] schema = {null};
+        StreamingExcelReader.SheetRowHandler handler = (rowNum, cells) -> {
+            if (schema[0] == null) {
+                String[] names = new String[cells.size()];
+                for (int i = 0; i < names.length; i++) {
+                    names[i] = cells.get(i).trim();
+                }
+                schema[0] = RowSchema.create(names, fileName, false);
+                return;
+            }
+            String[] headers = schema[0].headers();
+            Map<String, Object> rowData = new HashMap<>();
+            for (int i = 0; i < headers.length; i++) {
+                String value = i < cells.size() ? cells.get(i).trim() : "";
+                rowData.put(headers[i], schema[0].convert(i, value));
+            }
+            result.add(rowData);
+        };
+
+        try {
+            Path localFile = resolveLocalFile(fileName);
+            if (localFile != null) {
+                try (StreamingExcelReader reader = StreamingExcelReader.open(localFile.toString())) {
+                    reader.readSheet(0, handler);
+                }
+            } else {
+                try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(fileName);
+                     StreamingExcelReader reader = StreamingExcelReader.open(inputStream)) {
+                    reader.readSheet(0, handler);
+                }
+            }
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("File not found: " + fileName, e);
+        } catch (Exception e) {
+            throw new RuntimeException("Error reading file: " + fileName, e);
+        }
+        return result;
+    }
+
+    /**
+     * 读取文件的核心方法，解析结果由 {@link FileDataCache} 缓存，返回的列表和行只读
+     * 本地文件（含以目录形式存在的 ClassPath 资源）在分隔符为固定字符串且编码与 ASCII 兼容时走内存映射解析，
+     * 超过 file.parallel.thresholdMB 时分块并行解析；其余情况逐行读取
      * @param fileName 文件名
      * @param delimiter 分隔符
      * @param hasHeader 是否包含表头
@@ -97,6 +160,89 @@ public class AdvancedFileDataProvider implements FileDataProviderFactory {
      * @return 数据列表
      */
     private List<Map<String, Object>> readFile(String fileName, String delimiter, boolean hasHeader, String encoding) {
+        // 同一文件在进程内只解析一次，文件修改后重新解析；新的 JVM 优先映射预编译的二进制数据集
+        String rules = "AdvancedFileDataProvider:" + hasHeader;
+        return FileDataCache.get(fileName, encoding, delimiter, rules,
+                () -> BinaryDataSet.loadOrCompile(fileName, rules + ":" + encoding + ":" + delimiter,
+                        () -> parseFile(fileName, delimiter, hasHeader, encoding)));
+    }
+
+    private List<Map<String, Object>> parseFile(String fileName, String delimiter, boolean hasHeader, String encoding) {
+        Delimiter compiled = Delimiter.of(delimiter);
+        Charset charset = Charset.forName(encoding);
+        if (!compiled.isLiteral() || !MappedFileParser.supports(charset)) {
+            return readLines(fileName, compiled, hasHeader, charset);
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        RowSchema[] schema = {RowSchema.create(null, fileName, true)};
+        MappedFileParser.RecordHandler handler = (lineNumber, record) -> {
+            // 处理表头（可带类型声明，如 amount:double）
+            if (hasHeader && lineNumber == 1) {
+                String[] names = new String[record.size()];
+                for (int i = 0; i < names.length; i++) {
+                    names[i] = record.get(i);
+                }
+                schema[0] = RowSchema.create(names, fileName, true);
+                return;
+            }
+            result.add(toRow(schema[0], record));
+        };
+
+        try {
+            Path localFile = resolveLocalFile(fileName);
+            if (localFile != null && ParallelFileParser.worthParallel(Files.size(localFile))) {
+                // 大文件分块并行解析
+                return new ParallelFileParser(compiled, charset, true, FileDataConfig.getParallelChunkSize())
+                        .parse(localFile, hasHeader, headers -> {
+                            RowSchema rowSchema = RowSchema.create(headers, fileName, true);
+                            return record -> toRow(rowSchema, record);
+                        });
+            }
+            MappedFileParser parser = new MappedFileParser(compiled, charset);
+            if (localFile != null) {
+                parser.parse(localFile, handler);
+            } else {
+                // jar 包内的资源无法映射，读入内存后按同样方式解析
+                try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(fileName)) {
+                    if (inputStream == null) {
+                        throw new RuntimeException("File not found: " + fileName);
+                    }
+                    parser.parse(ByteBuffer.wrap(inputStream.readAllBytes()), handler);
+                }
+            }
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("File not found: " + fileName, e);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading file: " + fileName, e);
+        }
+        return result;
+    }
+
+    /**
+     * 构建数据映射，只解码需要的字段
+     * @param schema 列定义，没有表头时使用 column0、column1 ... 作为键
+     * @param record 当前记录
+     */
+    private Map<String, Object> toRow(RowSchema schema, MappedFileParser.Record record) {
+        String[] headers = schema.headers();
+        Map<String, Object> rowData = new HashMap<>();
+        if (headers != null) {
+            for (int i = 0; i < headers.length; i++) {
+                rowData.put(headers[i], schema.convert(i, i < record.size() ? record.get(i) : ""));
+            }
+        } else {
+            for (int i = 0; i < record.size(); i++) {
+                rowData.put("column" + i, schema.convert(i, record.get(i)));
+            }
+        }
+        return rowData;
+    }
+
+    /**
+     * 逐行读取（分隔符为正则表达式或编码与 ASCII 不兼容时使用）
+     */
+    private List<Map<String, Object>> readLines(String fileName, Delimiter delimiter, boolean hasHeader, Charset charset) {
         List<Map<String, Object>> result = new ArrayList<>();
         InputStream inputStream = null;
 
@@ -109,29 +255,31 @@ public class AdvancedFileDataProvider implements FileDataProviderFactory {
                 inputStream = new FileInputStream(fileName);
             }
 
-            if (inputStream == null) {
-                throw new RuntimeException("File not found: " + fileName);
-            }
-
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, Charset.forName(encoding)));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, charset));
             String line;
             String[] headers = null;
+            RowSchema schema = RowSchema.create(null, fileName, true);
             int lineNumber = 0;
 
             while ((line = reader.readLine()) != null) {
                 lineNumber++;
 
                 // 跳过空行和注释行（以#开头）
-                if (line.trim().isEmpty() || line.trim().startsWith("#")) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
                     continue;
                 }
 
                 // 解析行数据
-                String[] values = splitLine(line, delimiter);
+                String[] values = delimiter.isCsv() ? CsvLine.split(line) : delimiter.split(line);
 
-                // 处理表头
+                // 处理表头（可带类型声明，如 amount:double）
                 if (hasHeader && lineNumber == 1) {
-                    headers = values;
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = values[i].trim();
+                    }
+                    schema = RowSchema.create(values, fileName, true);
+                    headers = schema.headers();
                     continue;
                 }
 
@@ -140,14 +288,13 @@ public class AdvancedFileDataProvider implements FileDataProviderFactory {
                 if (headers != null) {
                     // 使用表头作为键
                     for (int i = 0; i < headers.length; i++) {
-                        String key = headers[i].trim();
                         String value = i < values.length ? values[i].trim() : "";
-                        rowData.put(key, convertValue(value));
+                        rowData.put(headers[i], schema.convert(i, value));
                     }
                 } else {
                     // 使用索引作为键
                     for (int i = 0; i < values.length; i++) {
-                        rowData.put("column" + i, convertValue(values[i].trim()));
+                        rowData.put("column" + i, schema.convert(i, values[i].trim()));
                     }
                 }
 
@@ -156,6 +303,8 @@ public class AdvancedFileDataProvider implements FileDataProviderFactory {
 
             reader.close();
 
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("File not found: " + fileName, e);
         } catch (IOException e) {
             throw new RuntimeException("Error reading file: " + fileName, e);
         } finally {
@@ -172,128 +321,17 @@ public class AdvancedFileDataProvider implements FileDataProviderFactory {
     }
 
     /**
-     * 分割行数据（处理引号包围的字段）
-     * @param line 行数据
-     * @param delimiter 分隔符
-     * @return 分割后的字段数组
-     */
-    private String[] splitLine(String line, String delimiter) {
-        // 如果分隔符是正则表达式，直接使用split
-        if (Pattern.compile("[\\[\\](){}|+?.*^$\\\\]").matcher(delimiter).find()) {
-            return line.split(delimiter, -1);
-        }
-
-        // 处理CSV格式的引号包围字段
-        if (",".equals(delimiter)) {
-            return parseCSVLine(line);
-        }
-
-        // 其他情况使用普通分割
-        return line.split(Pattern.quote(delimiter), -1);
-    }
-
-    /**
-     * 解析CSV行（处理引号）
-     * @param line CSV行
-     * @return 字段数组
-     */
-    private String[] parseCSVLine(String line) {
-        List<String> fields = new ArrayList<>();
-        StringBuilder currentField = new StringBuilder();
-        boolean inQuotes = false;
-
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-
-            if (c == '"') {
-                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
-                    // 双引号转义
-                    currentField.append('"');
-                    i++; // 跳过下一个引号
-                } else {
-                    // 切换引号状态
-                    inQuotes = !inQuotes;
-                }
-            } else if (c == ',' && !inQuotes) {
-                // 字段分隔符
-                fields.add(currentField.toString());
-                currentField.setLength(0);
-            } else {
-                currentField.append(c);
-            }
-        }
-
-        fields.add(currentField.toString());
-        return fields.toArray(new String[0]);
-    }
-
-    /**
-     * 转换值类型
-     * @param value 原始值
-     * @return 转换后的值
+     * 定位可以直接映射的本地文件：先查 ClassPath（目录形式），再查文件系统
+     * @return 文件路径，资源位于 jar 包内时返回 null
      */
-    private Object convertValue(String value) {
-        if (value == null || value.isEmpty()) {
-            return null;
+    private Path resolveLocalFile(String fileName) throws IOException {
+        if (getClass().getClassLoader().getResource(fileName) != null) {
+            return MappedFileParser.classpathFile(fileName);
         }
-
-        // 处理引号包围的值
-        if (value.startsWith("\"") && value.endsWith("\"") && value.length() >= 2) {
-            value = value.substring(1, value.length() - 1);
-            // 处理双引号转义
-            value = value.replace("\"\"", "\"");
-        }
-
-        // 处理特殊值
-        if ("null".equalsIgnoreCase(value)) {
-            return null;
-        }
-
-        if ("empty".equalsIgnoreCase(value)) {
-            return "";
-        }
-
-        // 尝试转换为数字
-        if (isNumeric(value)) {
-            if (value.contains(".")) {
-                return Double.parseDouble(value);
-            } else {
-                try {
-                    return Integer.parseInt(value);
-                } catch (NumberFormatException e) {
-                    return Long.parseLong(value);
-                }
-            }
-        }
-
-        // 尝试转换为布尔值
-        if ("true".equalsIgnoreCase(value)) {
-            return true;
-        }
-
-        if ("false".equalsIgnoreCase(value)) {
-            return false;
-        }
-
-        // 默认返回字符串
-        return value;
-    }
-
-    /**
-     * 判断字符串是否为数字
-     * @param str 字符串
-     * @return 是否为数字
-     */
-    private boolean isNumeric(String str) {
-        if (str == null || str.isEmpty()) {
-            return false;
-        }
-
-        try {
-            Double.parseDouble(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+        Path path = Paths.get(fileName);
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException(fileName);
         }
+        return path;
     }
 }
@@ -0,0 +1,506 @@
+package config.datafeomcsvtxt.imp;
+
+import config.datafeomcsvtxt.FileDataCache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 预编译的二进制列式数据集
+ * 数据文件解析一次后按列写入 file.binary.directory（默认 target/filedata-bin），之后的 JVM 直接内存映射该文件，不再解析文本：
+ * 整数、小数、布尔列按定长存储；字符串和 BigDecimal 存入字典，列中只存编号，同一个值只解码一次；
+ * 行在访问时才从各列组装。
+ * 文件头记录解析规则以及源文件、.schema 文件的修改时间和大小，任一不一致时视为过期，重新解析文本并覆盖。
+ * jar 包内的资源没有可比较的修改时间，始终解析文本。
+ */
+final class BinaryDataSet {
+
+    private static final int MAGIC = 0x46444231;
+    private static final int VERSION = 1;
+
+    // 列类型；MIXED 列逐格记录类型标记（同列类型代码）和 8 字节的值
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte STRING = 5;
+    private static final byte DECIMAL = 6;
+    private static final byte MIXED = 7;
+    // MIXED 列的单元格标记：值为 null、行中没有该列
+    private static final byte NULL_CELL = 0;
+    private static final byte ABSENT_CELL = 8;
+
+    private static final Object ABSENT = new Object();
+
+    private BinaryDataSet() {
+    }
+
+    /**
+     * 读取预编译的数据集，不存在或已过期时调用 parser 解析文本并重新编译
+     * @param fileName 数据文件名（ClassPath 或文件系统路径）
+     * @param rules 解析规则标识，包含提供者、编码、分隔符等影响解析结果的参数
+     * @param parser 解析文本
+     * @return 数据行；来自二进制文件时列表和行均不可修改
+     */
+    static List<Map<String, Object>> loadOrCompile(String fileName, String rules,
+                                                   Supplier<List<Map<String, Object>>> parser) {
+        if (!FileDataConfig.isBinaryEnabled()) {
+            return parser.get();
+        }
+
+        long[] stamp;
+        try {
+            Path source = locate(fileName);
+            if (source == null) {
+                return parser.get();
+            }
+            stamp = stamp(source, locate(fileName + ".schema"));
+        } catch (IOException e) {
+            return parser.get();
+        }
+
+        String key = fileName + "\n" + rules;
+        Path binary = binaryFile(key);
+        List<Map<String, Object>> rows = load(binary, key, stamp);
+        if (rows != null) {
+            return rows;
+        }
+
+        List<Map<String, Object>> parsed = parser.get();
+        try {
+            write(binary, key, stamp, parsed);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("无法写入二进制数据文件，下次仍解析文本: " + binary + " (" + e.getMessage() + ")");
+        }
+        return parsed;
+    }
+
+    /**
+     * 映射二进制文件
+     * @return 数据行，文件不存在、已过期或已损坏时返回 null
+     */
+    static List<Map<String, Object>> load(Path binary, String key, long[] stamp) {
+        try (FileChannel channel = FileChannel.open(binary, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return null;
+            }
+            // 关闭通道后映射仍然有效
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), key, stamp);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("二进制数据文件无法读取，改为解析文本: " + binary + " (" + e + ")");
+            return null;
+        }
+    }
+
+    /**
+     * 按列写入二进制文件：先写临时文件再原子替换，其它 JVM 不会读到写了一半的文件，已映射的旧文件也不受影响
+     * @throws IllegalArgumentException 数据中有无法编码的值类型
+     */
+    static void write(Path binary, String key, long[] stamp, List<Map<String, Object>> rows) throws IOException {
+        Set<String> names = new LinkedHashSet<>();
+        for (Map<String, Object> row : rows) {
+            names.addAll(row.keySet());
+        }
+        String[] columns = names.toArray(new String[0]);
+        byte[] types = new byte[columns.length];
+        boolean[] hasNulls = new boolean[columns.length];
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (int c = 0; c < columns.length; c++) {
+            for (Map<String, Object> row : rows) {
+                Object value = row.getOrDefault(columns[c], ABSENT);
+                if (value == null) {
+                    hasNulls[c] = true;
+                    continue;
+                }
+                byte type = value == ABSENT ? MIXED : typeOf(value);
+                if (types[c] == 0) {
+                    types[c] = type;
+                } else if (types[c] != type) {
+                    types[c] = MIXED;
+                }
+                if (type == STRING || type == DECIMAL) {
+                    dictionary.putIfAbsent(value.toString(), dictionary.size());
+                }
+            }
+            if (types[c] == 0) {
+                // 全部为 null
+                types[c] = STRING;
+            }
+        }
+
+        Files.createDirectories(binary.getParent());
+        Path temp = Files.createTempFile(binary.getParent(), binary.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, key);
+                for (long value : stamp) {
+                    out.writeLong(value);
+                }
+                out.writeInt(rows.size());
+                out.writeInt(columns.length);
+                for (String column : columns) {
+                    writeString(out, column);
+                }
+                writeDictionary(out, dictionary);
+                for (int c = 0; c < columns.length; c++) {
+                    writeColumn(out, rows, columns[c], types[c], hasNulls[c], dictionary);
+                }
+            }
+            if (Files.size(temp) > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("数据集超过 2GB，无法映射");
+            }
+            try {
+                Files.move(temp, binary, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, binary, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeDictionary(DataOutputStream out, Map<String, Integer> dictionary) throws IOException {
+        byte[][] encoded = new byte[dictionary.size()][];
+        int index = 0;
+        for (String value : dictionary.keySet()) {
+            encoded[index++] = value.getBytes(StandardCharsets.UTF_8);
+        }
+        out.writeInt(encoded.length);
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] bytes : encoded) {
+            offset += bytes.length;
+            out.writeInt(offset);
+        }
+        for (byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+    }
+
+    private static void writeColumn(DataOutputStream out, List<Map<String, Object>> rows, String column, byte type,
+                                    boolean hasNulls, Map<String, Integer> dictionary) throws IOException {
+        out.writeByte(type);
+        out.writeBoolean(hasNulls && type != MIXED);
+        if (hasNulls && type != MIXED) {
+            byte[] nulls = new byte[(rows.size() + 7) >>> 3];
+            for (int r = 0; r < rows.size(); r++) {
+                if (rows.get(r).get(column) == null) {
+                    nulls[r >>> 3] |= (byte) (1 << (r & 7));
+                }
+            }
+            out.write(nulls);
+        }
+
+        if (type == MIXED) {
+            for (Map<String, Object> row : rows) {
+                Object value = row.getOrDefault(column, ABSENT);
+                out.writeByte(value == ABSENT ? ABSENT_CELL : value == null ? NULL_CELL : typeOf(value));
+            }
+            for (Map<String, Object> row : rows) {
+                Object value = row.getOrDefault(column, ABSENT);
+                out.writeLong(value == ABSENT || value == null ? 0 : payload(value, typeOf(value), dictionary));
+            }
+            return;
+        }
+        for (Map<String, Object> row : rows) {
+            Object value = row.get(column);
+            long payload = value == null ? 0 : payload(value, type, dictionary);
+            switch (type) {
+                case LONG:
+                case DOUBLE:
+                    out.writeLong(payload);
+                    break;
+                case BOOLEAN:
+                    out.writeByte((int) payload);
+                    break;
+                default:
+                    out.writeInt((int) payload);
+                    break;
+            }
+        }
+    }
+
+    private static byte typeOf(Object value) {
+        if (value instanceof String) {
+            return STRING;
+        }
+        if (value instanceof Integer) {
+            return INT;
+        }
+        if (value instanceof Long) {
+            return LONG;
+        }
+        if (value instanceof Double) {
+            return DOUBLE;
+        }
+        if (value instanceof Boolean) {
+            return BOOLEAN;
+        }
+        if (value instanceof BigDecimal) {
+            return DECIMAL;
+        }
+        throw new IllegalArgumentException("不支持的值类型: " + value.getClass().getName());
+    }
+
+    private static long payload(Object value, byte type, Map<String, Integer> dictionary) {
+        switch (type) {
+            case INT:
+                return (Integer) value;
+            case LONG:
+                return (Long) value;
+            case DOUBLE:
+                return Double.doubleToRawLongBits((Double) value);
+            case BOOLEAN:
+                return (Boolean) value ? 1 : 0;
+            default:
+                return dictionary.get(value.toString());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static List<Map<String, Object>> read(ByteBuffer buffer, String key, long[] stamp) throws IOException {
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        if (!key.equals(readString(buffer))) {
+            return null;
+        }
+        for (long expected : stamp) {
+            if (buffer.getLong() != expected) {
+                return null;
+            }
+        }
+
+        int rowCount = buffer.getInt();
+        String[] names = new String[buffer.getInt()];
+        for (int c = 0; c < names.length; c++) {
+            names[c] = readString(buffer);
+        }
+
+        int dictionarySize = buffer.getInt();
+        int offsets = buffer.position();
+        int strings = offsets + (dictionarySize + 1) * 4;
+        buffer.position(strings + buffer.getInt(offsets + dictionarySize * 4));
+
+        Column[] columns = new Column[names.length];
+        for (int c = 0; c < names.length; c++) {
+            byte type = buffer.get();
+            int nulls = buffer.get() != 0 ? buffer.position() : -1;
+            if (nulls >= 0) {
+                buffer.position(nulls + ((rowCount + 7) >>> 3));
+            }
+            int data = buffer.position();
+            buffer.position(data + rowCount * width(type));
+            columns[c] = new Column(names[c], type, nulls, data);
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("文件长度与内容不符");
+        }
+        return new Rows(buffer, rowCount, columns, dictionarySize, offsets, strings);
+    }
+
+    private static int width(byte type) {
+        switch (type) {
+            case INT:
+            case STRING:
+            case DECIMAL:
+                return 4;
+            case LONG:
+            case DOUBLE:
+                return 8;
+            case BOOLEAN:
+                return 1;
+            case MIXED:
+                return 9;
+            default:
+                throw new IllegalStateException("未知的列类型: " + type);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 二进制文件名：数据文件名中的特殊字符替换为 _，再加上键的哈希值区分不同的解析规则
+     */
+    private static Path binaryFile(String key) {
+        String fileName = key.substring(0, key.indexOf('\n'));
+        String name = fileName.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + Integer.toHexString(key.hashCode()) + ".bin";
+        return Paths.get(FileDataConfig.getBinaryDirectory(), name);
+    }
+
+    /**
+     * 与提供者相同的查找顺序：先查 ClassPath（目录形式），再查文件系统
+     * @return 文件路径，位于 jar 包内或不存在时返回 null
+     */
+    private static Path locate(String fileName) throws IOException {
+        if (BinaryDataSet.class.getClassLoader().getResource(fileName) != null) {
+            return MappedFileParser.classpathFile(fileName);
+        }
+        Path path = Paths.get(fileName);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    private static long[] stamp(Path source, Path schema) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        long[] stamp = {attributes.lastModifiedTime().toMillis(), attributes.size(), -1, -1};
+        if (schema != null) {
+            BasicFileAttributes schemaAttributes = Files.readAttributes(schema, BasicFileAttributes.class);
+            stamp[2] = schemaAttributes.lastModifiedTime().toMillis();
+            stamp[3] = schemaAttributes.size();
+        }
+        return stamp;
+    }
+
+    private static final class Column {
+        private final String name;
+        private final byte type;
+        // null 位图的位置，没有 null 时为 -1
+        private final int nulls;
+        private final int data;
+
+        private Column(String name, byte type, int nulls, int data) {
+            this.name = name;
+            this.type = type;
+            this.nulls = nulls;
+            this.data = data;
+        }
+    }
+
+    /**
+     * 映射文件上的行视图，每次 get 从各列组装一行；可在多个线程中同时使用
+     */
+    private static final class Rows extends AbstractList<Map<String, Object>> implements RandomAccess, FileDataCache.ReadOnly {
+        private final ByteBuffer buffer;
+        private final int size;
+        private final Column[] columns;
+        private final int offsets;
+        private final int strings;
+        // 已解码的字典项，多个线程同时解码同一项时结果相同
+        private final String[] decoded;
+
+        private Rows(ByteBuffer buffer, int size, Column[] columns, int dictionarySize, int offsets, int strings) {
+            this.buffer = buffer;
+            this.size = size;
+            this.columns = columns;
+            this.offsets = offsets;
+            this.strings = strings;
+            this.decoded = new String[dictionarySize];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            Objects.checkIndex(index, size);
+            Map<String, Object> row = new HashMap<>();
+            for (Column column : columns) {
+                Object value = value(column, index);
+                if (value != ABSENT) {
+                    row.put(column.name, value);
+                }
+            }
+            return Collections.unmodifiableMap(row);
+        }
+
+        private Object value(Column column, int row) {
+            if (column.nulls >= 0 && (buffer.get(column.nulls + (row >>> 3)) & (1 << (row & 7))) != 0) {
+                return null;
+            }
+            switch (column.type) {
+                case INT:
+                    return buffer.getInt(column.data + row * 4);
+                case LONG:
+                    return buffer.getLong(column.data + row * 8);
+                case DOUBLE:
+                    return Double.longBitsToDouble(buffer.getLong(column.data + row * 8));
+                case BOOLEAN:
+                    return buffer.get(column.data + row) != 0;
+                case STRING:
+                    return string(buffer.getInt(column.data + row * 4));
+                case DECIMAL:
+                    return new BigDecimal(string(buffer.getInt(column.data + row * 4)));
+                default:
+                    byte tag = buffer.get(column.data + row);
+                    long payload = buffer.getLong(column.data + size + row * 8);
+                    return cell(tag, payload);
+            }
+        }
+
+        private Object cell(byte tag, long payload) {
+            switch (tag) {
+                case NULL_CELL:
+                    return null;
+                case ABSENT_CELL:
+                    return ABSENT;
+                case INT:
+                    return (int) payload;
+                case LONG:
+                    return payload;
+                case DOUBLE:
+                    return Double.longBitsToDouble(payload);
+                case BOOLEAN:
+                    return payload != 0;
+                case STRING:
+                    return string((int) payload);
+                case DECIMAL:
+                    return new BigDecimal(string((int) payload));
+                default:
+                    throw new IllegalStateException("未知的单元格类型: " + tag);
+            }
+        }
+
+        private String string(int id) {
+            String value = decoded[id];
+            if (value == null) {
+                int start = strings + buffer.getInt(offsets + id * 4);
+                int end = strings + buffer.getInt(offsets + id * 4 + 4);
+                byte[] bytes = new byte[end - start];
+                buffer.get(start, bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+                decoded[id] = value;
+            }
+            return value;
+        }
+    }
+}
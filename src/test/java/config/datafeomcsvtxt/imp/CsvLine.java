@@ -0,0 +1,49 @@
+package config.datafeomcsvtxt.imp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV 行拆分规则：逗号分隔，双引号包围的字段内可以含逗号，"" 还原为 "
+ * FileRowReader 和 AdvancedFileDataProvider 共用，保证流式读取和整体读取的结果一致。
+ */
+public final class CsvLine {
+
+    private CsvLine() {
+    }
+
+    /**
+     * 解析CSV行（处理引号）
+     * @param line CSV行
+     * @return 字段数组，保留空字段
+     */
+    public static String[] split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder currentField = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '"') {
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    // 双引号转义
+                    currentField.append('"');
+                    i++; // 跳过下一个引号
+                } else {
+                    // 切换引号状态
+                    inQuotes = !inQuotes;
+                }
+            } else if (c == ',' && !inQuotes) {
+                // 字段分隔符
+                fields.add(currentField.toString());
+                currentField.setLength(0);
+            } else {
+                currentField.append(c);
+            }
+        }
+
+        fields.add(currentField.toString());
+        return fields.toArray(new String[0]);
+    }
+}
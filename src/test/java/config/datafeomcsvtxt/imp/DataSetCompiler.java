@@ -0,0 +1,74 @@
+package config.datafeomcsvtxt.imp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 预编译数据文件
+ * 在构建或 CI 准备阶段运行一次，把数据文件编译为二进制数据集（见 {@link BinaryDataSet}），
+ * 之后启动的测试 JVM 直接映射二进制文件，不再解析文本。不运行时，首次读取数据文件的 JVM 会顺带完成编译。
+ * <pre>
+ * java config.datafeomcsvtxt.imp.DataSetCompiler testdata/login_data.csv data/模板.xlsx
+ * </pre>
+ * 不带参数时编译 ClassPath 中 file.data.directory 目录下的所有 csv、txt、xlsx 文件。
+ */
+public final class DataSetCompiler {
+
+    private DataSetCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> fileNames = new ArrayList<>(List.of(args));
+        if (fileNames.isEmpty()) {
+            fileNames.addAll(discover(FileDataConfig.getDataDirectory()));
+        }
+
+        int failed = 0;
+        for (String fileName : fileNames) {
+            try {
+                compile(fileName);
+            } catch (RuntimeException e) {
+                failed++;
+                System.err.println("编译失败: " + fileName + " (" + e.getMessage() + ")");
+            }
+        }
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 按两种提供者的默认规则读取一次文件，读取过程中写入二进制数据集
+     */
+    public static void compile(String fileName) {
+        long start = System.currentTimeMillis();
+        int rows = new AdvancedFileDataProvider().readFromFile(fileName).size();
+        if (!fileName.endsWith(".xlsx") && MappedFileParser.class.getClassLoader().getResource(fileName) != null) {
+            // FileDataProvider 只读取 ClassPath 中的文件
+            new FileDataProvider().readFromFile(fileName);
+        }
+        System.out.println("已编译: " + fileName + "，" + rows + " 行，耗时 " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private static List<String> discover(String directory) throws IOException {
+        String prefix = directory.endsWith("/") ? directory : directory + "/";
+        Path root = MappedFileParser.classpathFile(prefix);
+        List<String> fileNames = new ArrayList<>();
+        if (root == null || !Files.isDirectory(root)) {
+            System.err.println("ClassPath 中没有数据目录: " + directory);
+            return fileNames;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile)
+                    .map(file -> prefix + root.relativize(file).toString().replace('\\', '/'))
+                    .filter(name -> name.endsWith(".csv") || name.endsWith(".txt") || name.endsWith(".xlsx"))
+                    .sorted()
+                    .forEach(fileNames::add);
+        }
+        return fileNames;
+    }
+}
@@ -0,0 +1,88 @@
+package config.datafeomcsvtxt.imp;
+
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的分隔符
+ * 分隔符参数沿用正则表达式写法（如 "\\|"）。能还原为固定字符串时（普通字符或单个转义字符）按字节直接匹配，
+ * 否则保留编译好的 Pattern；同一分隔符只解析一次。
+ */
+final class Delimiter {
+
+    private static final Map<String, Delimiter> CACHE = new ConcurrentHashMap<>();
+    private static final String REGEX_META = "[](){}|+?.*^$\\";
+
+    private final String literal;
+    private final Pattern pattern;
+
+    private Delimiter(String literal, Pattern pattern) {
+        this.literal = literal;
+        this.pattern = pattern;
+    }
+
+    static Delimiter of(String delimiter) {
+        return CACHE.computeIfAbsent(delimiter, Delimiter::compile);
+    }
+
+    private static Delimiter compile(String delimiter) {
+        if (delimiter.isEmpty()) {
+            throw new IllegalArgumentException("分隔符不能为空");
+        }
+        String literal = toLiteral(delimiter);
+        return new Delimiter(literal, literal == null ? Pattern.compile(delimiter) : Pattern.compile(Pattern.quote(literal)));
+    }
+
+    /**
+     * 不含正则元字符的原样返回；"\\x" 形式的单个转义返回字符本身（\t 为制表符）；其它返回 null
+     */
+    private static String toLiteral(String delimiter) {
+        boolean hasMeta = false;
+        for (int i = 0; i < delimiter.length(); i++) {
+            if (REGEX_META.indexOf(delimiter.charAt(i)) >= 0) {
+                hasMeta = true;
+                break;
+            }
+        }
+        if (!hasMeta) {
+            return delimiter;
+        }
+        if (delimiter.length() == 2 && delimiter.charAt(0) == '\\') {
+            char escaped = delimiter.charAt(1);
+            if (escaped == 't') {
+                return "\t";
+            }
+            if (!Character.isLetterOrDigit(escaped)) {
+                return String.valueOf(escaped);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 是否为固定字符串（可按字节扫描）
+     */
+    boolean isLiteral() {
+        return literal != null;
+    }
+
+    /**
+     * 是否为 CSV 逗号分隔（需要处理引号）
+     */
+    boolean isCsv() {
+        return ",".equals(literal);
+    }
+
+    byte[] bytes(Charset charset) {
+        return literal.getBytes(charset);
+    }
+
+    /**
+     * 按分隔符拆分一行，保留空字段
+     */
+    String[] split(String line) {
+        return pattern.split(line, -1);
+    }
+}
@@ -12,7 +12,7 @@ public class FileDataConfig {
 
     static {
         try {
-            InputStream input = FileDataConfig.class.getClassLoader().getResourceAsStream("filedata.properties");
+            InputStream input = FileDataConfig.class.getClassLoader().getResourceAsStream("config/filedata.properties");
             if (input != null) {
                 properties.load(input);
             }
@@ -31,6 +31,56 @@ public class FileDataConfig {
         return properties.getProperty("file.encoding", "UTF-8");
     }
 
+    /**
+     * 文件大小达到该值（字节）时分块并行解析，配置项单位为 MB
+     */
+    public static long getParallelThreshold() {
+        return Long.parseLong(properties.getProperty("file.parallel.thresholdMB", "32").trim()) * 1024 * 1024;
+    }
+
+    /**
+     * 并行解析时每块的目标大小（字节），配置项单位为 MB
+     */
+    public static long getParallelChunkSize() {
+        return Long.parseLong(properties.getProperty("file.parallel.chunkSizeMB", "8").trim()) * 1024 * 1024;
+    }
+
+    /**
+     * 并行解析的线程数，默认为 CPU 核数，配置为 1 时关闭并行解析
+     */
+    public static int getParallelism() {
+        String threads = properties.getProperty("file.parallel.threads", "").trim();
+        return threads.isEmpty() ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threads);
+    }
+
+    /**
+     * 解析结果缓存的总行数上限，为 0 时不缓存
+     */
+    public static int getCacheMaxRows() {
+        return Integer.parseInt(properties.getProperty("file.cache.maxRows", "1000000").trim());
+    }
+
+    /**
+     * 解析结果缓存的文件数上限
+     */
+    public static int getCacheMaxFiles() {
+        return Integer.parseInt(properties.getProperty("file.cache.maxFiles", "64").trim());
+    }
+
+    /**
+     * 是否使用预编译的二进制数据集（见 {@link BinaryDataSet}）
+     */
+    public static boolean isBinaryEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("file.binary.enabled", "true").trim());
+    }
+
+    /**
+     * 二进制数据集的存放目录
+     */
+    public static String getBinaryDirectory() {
+        return properties.getProperty("file.binary.directory", "target/filedata-bin").trim();
+    }
+
     public static String getFilePath(String fileName) {
         String directory = getDataDirectory();
         if (!directory.endsWith("/")) {
@@ -2,12 +2,16 @@
 package config.datafeomcsvtxt.imp;
 
 
+import config.datafeomcsvtxt.FileDataCache;
 import config.datafeomcsvtxt.FileDataProviderFactory;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -53,13 +57,27 @@ public class FileDataProvider implements FileDataProviderFactory {
     }
 
     /**
-     * 读取文件的核心方法
+     * 读取文件的核心方法，解析结果由 {@link FileDataCache} 缓存，返回的列表和行只读
      * @param fileName 文件名
      * @param delimiter 分隔符
      * @param hasHeader 是否包含表头
      * @return 数据列表
      */
     private List<Map<String, Object>> readFile(String fileName, String delimiter, boolean hasHeader) {
+        // 同一文件在进程内只解析一次，文件修改后重新解析；新的 JVM 优先映射预编译的二进制数据集
+        String encoding = Charset.defaultCharset().name();
+        String rules = "FileDataProvider:" + hasHeader;
+        return FileDataCache.get(fileName, encoding, delimiter, rules,
+                () -> BinaryDataSet.loadOrCompile(fileName, rules + ":" + encoding + ":" + delimiter,
+                        () -> parseFile(fileName, delimiter, hasHeader)));
+    }
+
+    private List<Map<String, Object>> parseFile(String fileName, String delimiter, boolean hasHeader) {
+        List<Map<String, Object>> parallelResult = readParallel(fileName, delimiter, hasHeader);
+        if (parallelResult != null) {
+            return parallelResult;
+        }
+
         List<Map<String, Object>> result = new ArrayList<>();
         InputStream inputStream = getClass().getClassLoader().getResourceAsStream(fileName);
 
@@ -70,6 +88,7 @@ public class FileDataProvider implements FileDataProviderFactory {
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
             String line;
             String[] headers = null;
+            RowSchema schema = RowSchema.create(null, fileName, false);
             int lineNumber = 0;
 
             while ((line = reader.readLine()) != null) {
@@ -83,9 +102,13 @@ public class FileDataProvider implements FileDataProviderFactory {
                 // 解析行数据
                 String[] values = line.split(delimiter, -1); // -1保留空值
 
-                // 处理表头
+                // 处理表头（可带类型声明，如 amount:double）
                 if (hasHeader && lineNumber == 1) {
-                    headers = values;
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = values[i].trim();
+                    }
+                    schema = RowSchema.create(values, fileName, false);
+                    headers = schema.headers();
                     continue;
                 }
 
@@ -94,14 +117,13 @@ public class FileDataProvider implements FileDataProviderFactory {
                 if (headers != null) {
                     // 使用表头作为键
                     for (int i = 0; i < headers.length; i++) {
-                        String key = headers[i].trim();
                         String value = i < values.length ? values[i].trim() : "";
-                        rowData.put(key, convertValue(value));
+                        rowData.put(headers[i], schema.convert(i, value));
                     }
                 } else {
                     // 使用索引作为键
                     for (int i = 0; i < values.length; i++) {
-                        rowData.put("column" + i, convertValue(values[i].trim()));
+                        rowData.put("column" + i, schema.convert(i, values[i].trim()));
                     }
                 }
 
@@ -116,65 +138,44 @@ public class FileDataProvider implements FileDataProviderFactory {
     }
 
     /**
-     * 转换值类型
-     * @param value 原始值
-     * @return 转换后的值
+     * 大文件分块并行解析
+     * 仅用于以目录形式存在于 ClassPath 中、达到 file.parallel.thresholdMB 的文件，
+     * 且分隔符为固定字符串、默认编码与 ASCII 兼容；拆分规则与逐行读取一致
+     * @return 不满足条件时返回 null
      */
-    private Object convertValue(String value) {
-        if (value == null || value.isEmpty()) {
+    private List<Map<String, Object>> readParallel(String fileName, String delimiter, boolean hasHeader) {
+        Delimiter compiled = Delimiter.of(delimiter);
+        Charset charset = Charset.defaultCharset();
+        if (!compiled.isLiteral() || !MappedFileParser.supports(charset)) {
             return null;
         }
-
-        // 处理特殊值
-        if ("null".equalsIgnoreCase(value)) {
-            return null;
-        }
-
-        if ("empty".equalsIgnoreCase(value)) {
-            return "";
-        }
-
-        // 尝试转换为数字
-        if (isNumeric(value)) {
-            if (value.contains(".")) {
-                return Double.parseDouble(value);
-            } else {
-                try {
-                    return Integer.parseInt(value);
-                } catch (NumberFormatException e) {
-                    return Long.parseLong(value);
-                }
+        try {
+            Path file = MappedFileParser.classpathFile(fileName);
+            if (file == null || !ParallelFileParser.worthParallel(Files.size(file))) {
+                return null;
             }
+            return new ParallelFileParser(compiled, charset, false, FileDataConfig.getParallelChunkSize())
+                    .parse(file, hasHeader, headers -> {
+                        RowSchema schema = RowSchema.create(headers, fileName, false);
+                        return record -> toRow(schema, record);
+                    });
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading file: " + fileName, e);
         }
-
-        // 尝试转换为布尔值
-        if ("true".equalsIgnoreCase(value)) {
-            return true;
-        }
-
-        if ("false".equalsIgnoreCase(value)) {
-            return false;
-        }
-
-        // 默认返回字符串
-        return value;
     }
 
-    /**
-     * 判断字符串是否为数字
-     * @param str 字符串
-     * @return 是否为数字
-     */
-    private boolean isNumeric(String str) {
-        if (str == null || str.isEmpty()) {
-            return false;
-        }
-
-        try {
-            Double.parseDouble(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+    private Map<String, Object> toRow(RowSchema schema, MappedFileParser.Record record) {
+        String[] headers = schema.headers();
+        Map<String, Object> rowData = new HashMap<>();
+        if (headers != null) {
+            for (int i = 0; i < headers.length; i++) {
+                rowData.put(headers[i], schema.convert(i, i < record.size() ? record.get(i) : ""));
+            }
+        } else {
+            for (int i = 0; i < record.size(); i++) {
+                rowData.put("column" + i, schema.convert(i, record.get(i)));
+            }
         }
+        return rowData;
     }
 }
@@ -0,0 +1,346 @@
+package config.datafeomcsvtxt.imp;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 基于内存映射的 CSV/TXT 解析器
+ * 通过 FileChannel.map 映射文件，直接在字节上查找换行、分隔符和引号，不逐行创建字符串，也不使用正则；
+ * 每条记录只记录各字段的起止位置，字段文本在调用 {@link Record#get(int)} 时才解码。
+ * 大文件按窗口分段映射，跨窗口的记录从记录起点重新映射。
+ * 要求分隔符为固定字符串、编码与 ASCII 兼容（ASCII 字节不会出现在多字节字符中间）。
+ * 跳过空行，字段去除首尾空白；启用 CSV 规则时（AdvancedFileDataProvider）还会跳过以 # 开头的注释行，
+ * 逗号分隔时按 CSV 规则处理引号，引号内可以包含分隔符和换行。
+ */
+final class MappedFileParser {
+
+    // 单个映射窗口的大小，单条记录不能超过该长度
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private final byte[] delimiter;
+    private final boolean skipComments;
+    private final boolean csvQuotes;
+    private final Charset charset;
+    private final Record record;
+    private int lineNumber;
+
+    MappedFileParser(Delimiter delimiter, Charset charset) {
+        this(delimiter, charset, true);
+    }
+
+    /**
+     * @param csvRules 是否跳过注释行并处理 CSV 引号；为 false 时只按换行和分隔符拆分（与 FileDataProvider 一致）
+     */
+    MappedFileParser(Delimiter delimiter, Charset charset, boolean csvRules) {
+        this.delimiter = delimiter.bytes(charset);
+        this.skipComments = csvRules;
+        this.csvQuotes = csvRules && delimiter.isCsv();
+        this.charset = charset;
+        this.record = new Record(charset);
+    }
+
+    /**
+     * 是否可以按字节扫描该编码的文件
+     */
+    static boolean supports(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset)
+                || StandardCharsets.US_ASCII.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset);
+    }
+
+    /**
+     * 映射并解析本地文件
+     */
+    void parse(Path path, RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            lineNumber = 1;
+            while (position < size) {
+                long length = Math.min(size - position, WINDOW_SIZE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length == size;
+                int consumed = scan(buffer, position == 0 ? bomLength(buffer) : 0, last, handler);
+                if (consumed == 0 && !last) {
+                    throw new IOException("单条记录超过 " + WINDOW_SIZE + " 字节: " + path);
+                }
+                position += consumed;
+            }
+        }
+    }
+
+    /**
+     * 解析内存中的内容（如 jar 包内的 ClassPath 资源）
+     */
+    void parse(ByteBuffer buffer, RecordHandler handler) {
+        parseChunk(buffer, 1, handler);
+    }
+
+    /**
+     * 解析文件中的一段，该段必须从记录起点开始、在记录末尾结束
+     * @param firstLineNumber 该段第一行的行号（从 1 开始）
+     */
+    void parseChunk(ByteBuffer buffer, int firstLineNumber, RecordHandler handler) {
+        lineNumber = firstLineNumber;
+        scan(buffer, firstLineNumber == 1 ? bomLength(buffer) : 0, true, handler);
+    }
+
+    /**
+     * 查找以目录形式存在于 ClassPath 中的资源文件
+     * @return 文件路径，资源不存在或位于 jar 包内时返回 null
+     */
+    static Path classpathFile(String fileName) throws IOException {
+        URL resource = MappedFileParser.class.getClassLoader().getResource(fileName);
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(resource.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("无法解析资源路径: " + resource, e);
+        }
+    }
+
+    /**
+     * 逐条扫描记录
+     * @param last 缓冲区是否包含文件末尾；不是时最后一条不完整的记录留给下一个窗口
+     * @return 已处理的字节数
+     */
+    private int scan(ByteBuffer buffer, int start, boolean last, RecordHandler handler) {
+        int limit = buffer.limit();
+        int p = start;
+        while (p < limit) {
+            int recordStart = p;
+
+            // 注释行：不做引号处理，直接跳到行尾
+            int first = p;
+            while (first < limit && isBlank(buffer.get(first)) && buffer.get(first) != '\n') {
+                first++;
+            }
+            if (skipComments && first < limit && buffer.get(first) == '#') {
+                int end = indexOfNewline(buffer, first, limit);
+                if (end < 0 && !last) {
+                    return recordStart;
+                }
+                p = end < 0 ? limit : end + 1;
+                lineNumber++;
+                continue;
+            }
+
+            record.reset(buffer);
+            int fieldStart = p;
+            boolean quoted = false;
+            boolean inQuotes = false;
+            int lines = 1;
+            boolean complete = false;
+            while (p < limit) {
+                byte b = buffer.get(p);
+                if (csvQuotes && b == '"') {
+                    inQuotes = !inQuotes;
+                    quoted = true;
+                    p++;
+                } else if (b == '\n') {
+                    if (inQuotes) {
+                        lines++;
+                        p++;
+                        continue;
+                    }
+                    record.add(fieldStart, p, quoted);
+                    p++;
+                    complete = true;
+                    break;
+                } else if (!inQuotes && matchesDelimiter(buffer, p, limit)) {
+                    record.add(fieldStart, p, quoted);
+                    p += delimiter.length;
+                    fieldStart = p;
+                    quoted = false;
+                } else {
+                    p++;
+                }
+            }
+            if (!complete) {
+                if (!last) {
+                    return recordStart;
+                }
+                record.add(fieldStart, limit, quoted);
+            }
+
+            if (!record.isBlankLine()) {
+                handler.handle(lineNumber, record);
+            }
+            lineNumber += lines;
+        }
+        return limit;
+    }
+
+    private boolean matchesDelimiter(ByteBuffer buffer, int p, int limit) {
+        if (buffer.get(p) != delimiter[0]) {
+            return false;
+        }
+        if (delimiter.length == 1) {
+            return true;
+        }
+        if (p + delimiter.length > limit) {
+            return false;
+        }
+        for (int i = 1; i < delimiter.length; i++) {
+            if (buffer.get(p + i) != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOfNewline(ByteBuffer buffer, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int bomLength(ByteBuffer buffer) {
+        if (StandardCharsets.UTF_8.equals(charset) && buffer.limit() >= 3
+                && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+
+    /**
+     * 与 String.trim 一致：码值不大于空格的字符视为空白
+     */
+    static boolean isBlank(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * 记录处理器
+     */
+    interface RecordHandler {
+        /**
+         * @param lineNumber 记录起始行号（从 1 开始）
+         * @param record 当前记录，只在回调期间有效
+         */
+        void handle(int lineNumber, Record record);
+    }
+
+    /**
+     * 一条记录的字段位置，解析器内复用同一个实例
+     */
+    static final class Record {
+        private final Charset charset;
+        private ByteBuffer buffer;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private boolean[] quoted = new boolean[16];
+        private int size;
+        private byte[] scratch = new byte[256];
+
+        private Record(Charset charset) {
+            this.charset = charset;
+        }
+
+        private void reset(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.size = 0;
+        }
+
+        private void add(int start, int end, boolean isQuoted) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                quoted = Arrays.copyOf(quoted, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            quoted[size] = isQuoted;
+            size++;
+        }
+
+        private boolean isBlankLine() {
+            if (size != 1 || quoted[0]) {
+                return false;
+            }
+            for (int i = starts[0]; i < ends[0]; i++) {
+                if (!isBlank(buffer.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return 字段数
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * 解码第 index 个字段（去除首尾空白，CSV 引号已去除）
+         */
+        String get(int index) {
+            int start = starts[index];
+            int end = ends[index];
+            if (quoted[index]) {
+                return unquote(decode(start, end)).trim();
+            }
+            while (start < end && isBlank(buffer.get(start))) {
+                start++;
+            }
+            while (end > start && isBlank(buffer.get(end - 1))) {
+                end--;
+            }
+            return decode(start, end);
+        }
+
+        private String decode(int start, int end) {
+            int length = end - start;
+            if (length == 0) {
+                return "";
+            }
+            if (buffer.hasArray()) {
+                return new String(buffer.array(), buffer.arrayOffset() + start, length, charset);
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(start, scratch, 0, length);
+            return new String(scratch, 0, length, charset);
+        }
+
+        /**
+         * 去除 CSV 引号，"" 还原为 "
+         */
+        private static String unquote(String field) {
+            StringBuilder value = new StringBuilder(field.length());
+            boolean inQuotes = false;
+            for (int i = 0; i < field.length(); i++) {
+                char c = field.charAt(i);
+                if (c == '"') {
+                    if (inQuotes && i + 1 < field.length() && field.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        inQuotes = !inQuotes;
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+            return value.toString();
+        }
+    }
+}
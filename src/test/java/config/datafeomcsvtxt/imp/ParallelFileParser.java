@@ -0,0 +1,252 @@
+package config.datafeomcsvtxt.imp;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 多线程分块解析大文件
+ * 先顺序扫描一遍字节，按目标大小在记录边界处切分（CSV 规则下跟踪引号状态，引号内的换行不会被当作边界，
+ * 注释行中的引号不计入），同时统计每块的起始行号；再在 ForkJoinPool 中并行映射、解析各块，
+ * 最后按块的顺序拼接结果，行顺序与文件一致。
+ */
+final class ParallelFileParser {
+
+    private static final long SCAN_WINDOW = 256L * 1024 * 1024;
+    private static volatile ForkJoinPool sharedPool;
+
+    private final Delimiter delimiter;
+    private final Charset charset;
+    private final boolean csvRules;
+    private final long chunkSize;
+
+    /**
+     * @param csvRules 是否跳过注释行并处理 CSV 引号，与 {@link MappedFileParser} 一致
+     * @param chunkSize 每块的目标字节数
+     */
+    ParallelFileParser(Delimiter delimiter, Charset charset, boolean csvRules, long chunkSize) {
+        this.delimiter = delimiter;
+        this.charset = charset;
+        this.csvRules = csvRules;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * 文件大小达到阈值且配置了多个线程时才值得分块
+     */
+    static boolean worthParallel(long fileSize) {
+        return FileDataConfig.getParallelism() > 1 && fileSize >= FileDataConfig.getParallelThreshold();
+    }
+
+    /**
+     * 解析文件
+     * @param hasHeader 第 1 行是否为表头；是时该行作为表头传给 mapperFactory，不作为数据行
+     * @param mapperFactory 读取表头后创建行转换器，转换器会在多个线程中同时调用
+     * @return 按文件顺序排列的数据行
+     */
+    <T> List<T> parse(Path path, boolean hasHeader, MapperFactory<T> mapperFactory) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<Chunk> chunks = split(channel);
+            if (chunks.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            String[] headers = hasHeader ? readHeader(channel, chunks.get(0)) : null;
+            RowMapper<T> mapper = mapperFactory.create(headers);
+            List<ForkJoinTask<List<T>>> tasks = new ArrayList<>(chunks.size());
+            ForkJoinPool pool = pool();
+            for (Chunk chunk : chunks) {
+                tasks.add(pool.submit(() -> parseChunk(channel, chunk, hasHeader, mapper)));
+            }
+
+            List<List<T>> parts = new ArrayList<>(tasks.size());
+            int total = 0;
+            for (ForkJoinTask<List<T>> task : tasks) {
+                List<T> part = join(task, tasks);
+                parts.add(part);
+                total += part.size();
+            }
+            List<T> result = new ArrayList<>(total);
+            for (List<T> part : parts) {
+                result.addAll(part);
+            }
+            return result;
+        }
+    }
+
+    private <T> List<T> parseChunk(FileChannel channel, Chunk chunk, boolean hasHeader, RowMapper<T> mapper)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+        List<T> rows = new ArrayList<>();
+        new MappedFileParser(delimiter, charset, csvRules).parseChunk(buffer, chunk.firstLine, (lineNumber, record) -> {
+            if (hasHeader && lineNumber == 1) {
+                return;
+            }
+            T row = mapper.map(record);
+            if (row != null) {
+                rows.add(row);
+            }
+        });
+        return rows;
+    }
+
+    /**
+     * 只解析第一块中的第 1 行
+     */
+    private String[] readHeader(FileChannel channel, Chunk first) throws IOException {
+        if (first.firstLine != 1) {
+            return null;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, first.start, first.headerEnd - first.start);
+        String[][] headers = {null};
+        new MappedFileParser(delimiter, charset, csvRules).parseChunk(buffer, 1, (lineNumber, record) -> {
+            if (lineNumber == 1) {
+                String[] names = new String[record.size()];
+                for (int i = 0; i < names.length; i++) {
+                    names[i] = record.get(i);
+                }
+                headers[0] = names;
+            }
+        });
+        return headers[0];
+    }
+
+    /**
+     * 顺序扫描，在达到目标大小后的第一个记录边界处切分
+     */
+    private List<Chunk> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        boolean csvQuotes = csvRules && delimiter.isCsv();
+        List<Chunk> chunks = new ArrayList<>();
+
+        long chunkStart = 0;
+        long headerEnd = -1;
+        int chunkFirstLine = 1;
+        int line = 1;
+        boolean inQuotes = false;
+        boolean lineStart = true;
+        boolean comment = false;
+
+        for (long position = 0; position < size; position += SCAN_WINDOW) {
+            long length = Math.min(size - position, SCAN_WINDOW);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int limit = buffer.limit();
+            for (int i = 0; i < limit; i++) {
+                byte b = buffer.get(i);
+                if (b != '\n') {
+                    if (comment) {
+                        continue;
+                    }
+                    if (lineStart) {
+                        if (MappedFileParser.isBlank(b)) {
+                            continue;
+                        }
+                        lineStart = false;
+                        if (csvRules && b == '#') {
+                            comment = true;
+                            continue;
+                        }
+                    }
+                    if (csvQuotes && b == '"') {
+                        inQuotes = !inQuotes;
+                    }
+                    continue;
+                }
+
+                line++;
+                if (inQuotes) {
+                    continue;
+                }
+                lineStart = true;
+                comment = false;
+                long end = position + i + 1;
+                if (headerEnd < 0) {
+                    headerEnd = end;
+                }
+                if (end - chunkStart >= chunkSize) {
+                    chunks.add(new Chunk(chunkStart, end, chunkFirstLine, headerEnd));
+                    chunkStart = end;
+                    chunkFirstLine = line;
+                }
+            }
+        }
+        if (chunkStart < size) {
+            chunks.add(new Chunk(chunkStart, size, chunkFirstLine, headerEnd < 0 ? size : headerEnd));
+        }
+        return chunks;
+    }
+
+    private static <T> List<T> join(ForkJoinTask<List<T>> task, List<ForkJoinTask<List<T>>> all) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            for (ForkJoinTask<List<T>> other : all) {
+                other.cancel(true);
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static ForkJoinPool pool() {
+        ForkJoinPool pool = sharedPool;
+        if (pool == null) {
+            synchronized (ParallelFileParser.class) {
+                pool = sharedPool;
+                if (pool == null) {
+                    pool = new ForkJoinPool(FileDataConfig.getParallelism());
+                    sharedPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 根据表头创建行转换器
+     */
+    interface MapperFactory<T> {
+        /**
+         * @param headers 表头，没有表头时为 null
+         */
+        RowMapper<T> create(String[] headers);
+    }
+
+    /**
+     * 把一条记录转换为一行数据
+     */
+    interface RowMapper<T> {
+        /**
+         * @param record 当前记录，只在调用期间有效
+         * @return 一行数据，返回 null 时丢弃
+         */
+        T map(MappedFileParser.Record record);
+    }
+
+    /**
+     * 文件中的一段：[start, end)，从记录起点开始、在记录末尾结束
+     */
+    private static final class Chunk {
+        private final long start;
+        private final long end;
+        private final int firstLine;
+        // 第 1 行结束的位置，只对第一块有意义
+        private final long headerEnd;
+
+        private Chunk(long start, long end, int firstLine, long headerEnd) {
+            this.start = start;
+            this.end = end;
+            this.firstLine = firstLine;
+            this.headerEnd = headerEnd;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package config.datafeomcsvtxt.imp;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * 一个数据文件的列定义与值转换
+ * 列类型可以在表头中声明（如 amount:double、id:long），也可以写在与数据文件同名的 .schema 文件中
+ * （如 testdata/login_data.csv.schema，每行 列名=类型，优先于表头声明）。
+ * 支持的类型：string、int、long、double、decimal、boolean、auto。
+ * 未声明类型的列按自动识别规则转换：先用前若干行抽样，推断出纯文本列或纯数字列后，
+ * 纯文本列跳过数字扫描，纯数字列直接扫描数字；不符合推断的单元格仍按完整规则转换，结果与逐格识别一致。
+ * 可在多个线程中同时使用。
+ */
+final class RowSchema {
+
+    private static final int SAMPLE_SIZE = 100;
+    private static final byte MIXED = 0;
+    private static final byte TEXT = 1;
+    private static final byte NUMBER = 2;
+
+    private final String[] headers;
+    // 声明的类型，未声明的列为 null
+    private final String[] types;
+    private final boolean stripQuotes;
+
+    // 抽样统计：每列的数字、文本个数
+    private final int[] numberCounts;
+    private final int[] textCounts;
+    private int sampledRows;
+    private volatile byte[] hints;
+
+    private RowSchema(String[] headers, String[] types, boolean stripQuotes) {
+        this.headers = headers;
+        this.types = types;
+        this.stripQuotes = stripQuotes;
+        int width = types.length;
+        this.numberCounts = new int[width];
+        this.textCounts = new int[width];
+        // 没有表头时不做推断
+        this.hints = headers == null ? new byte[0] : null;
+    }
+
+    /**
+     * @param rawHeaders 表头（已去除首尾空白），没有表头时为 null
+     * @param fileName 数据文件名，用于查找 .schema 文件
+     * @param stripQuotes 是否去除包围整个值的引号（AdvancedFileDataProvider 的规则）
+     */
+    static RowSchema create(String[] rawHeaders, String fileName, boolean stripQuotes) {
+        if (rawHeaders == null) {
+            return new RowSchema(null, new String[0], stripQuotes);
+        }
+
+        String[] headers = new String[rawHeaders.length];
+        String[] types = new String[rawHeaders.length];
+        for (int i = 0; i < rawHeaders.length; i++) {
+            String header = rawHeaders[i];
+            int colon = header.lastIndexOf(':');
+            String type = colon > 0 ? header.substring(colon + 1).trim().toLowerCase(Locale.ROOT) : "";
+            if (ValueConverter.isType(type)) {
+                headers[i] = header.substring(0, colon).trim();
+                types[i] = type;
+            } else {
+                headers[i] = header;
+            }
+        }
+
+        Properties sidecar = loadSchemaFile(fileName);
+        for (String column : sidecar.stringPropertyNames()) {
+            String type = sidecar.getProperty(column).trim().toLowerCase(Locale.ROOT);
+            if (!ValueConverter.isType(type)) {
+                throw new IllegalArgumentException(fileName + ".schema 中列 " + column + " 的类型不支持: " + type);
+            }
+            for (int i = 0; i < headers.length; i++) {
+                if (headers[i].equals(column.trim())) {
+                    types[i] = type;
+                }
+            }
+        }
+        return new RowSchema(headers, types, stripQuotes);
+    }
+
+    /**
+     * @return 去除类型声明后的表头，没有表头时为 null
+     */
+    String[] headers() {
+        return headers;
+    }
+
+    /**
+     * 转换第 column 列的值
+     * @param value 已去除首尾空白的文本
+     */
+    Object convert(int column, String value) {
+        String type = column < types.length ? types[column] : null;
+        if (type != null) {
+            try {
+                return ValueConverter.convertDeclared(value, type, stripQuotes);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("列 " + headers[column] + ": " + e.getMessage(), e);
+            }
+        }
+
+        byte[] columnHints = hints;
+        if (columnHints == null) {
+            return sample(column, value);
+        }
+        byte hint = column < columnHints.length ? columnHints[column] : MIXED;
+        if (hint == TEXT && !mayBeSpecial(value)) {
+            return value;
+        }
+        if (hint == NUMBER) {
+            Number number = ValueConverter.parseNumber(value);
+            if (number != null) {
+                return number;
+            }
+        }
+        return ValueConverter.convertAuto(value, stripQuotes);
+    }
+
+    /**
+     * 抽样阶段：按完整规则转换并统计，样本足够后确定各列的推断结果
+     */
+    private synchronized Object sample(int column, String value) {
+        Object converted = ValueConverter.convertAuto(value, stripQuotes);
+        if (hints != null) {
+            return converted;
+        }
+        if (column < numberCounts.length) {
+            if (converted instanceof Number) {
+                numberCounts[column]++;
+            } else if (converted instanceof String && !((String) converted).isEmpty()) {
+                textCounts[column]++;
+            }
+        }
+        // 以最后一列计数，每行记一次
+        if (column == numberCounts.length - 1 && ++sampledRows >= SAMPLE_SIZE) {
+            byte[] result = new byte[numberCounts.length];
+            for (int i = 0; i < result.length; i++) {
+                if (numberCounts[i] > 0 && textCounts[i] == 0) {
+                    result[i] = NUMBER;
+                } else if (textCounts[i] > 0 && numberCounts[i] == 0) {
+                    result[i] = TEXT;
+                } else {
+                    result[i] = MIXED;
+                }
+            }
+            hints = result;
+        }
+        return converted;
+    }
+
+    /**
+     * 可能是数字、关键字（null/empty/true/false）或引号包围的值，需要按完整规则转换
+     */
+    private static boolean mayBeSpecial(String value) {
+        if (value.isEmpty() || value.length() == 4 || value.length() == 5) {
+            return true;
+        }
+        char first = value.charAt(0);
+        return (first >= '0' && first <= '9') || first == '+' || first == '-' || first == '.' || first == '"';
+    }
+
+    /**
+     * 读取与数据文件同名的 .schema 文件：先查 ClassPath，再查文件系统，不存在时返回空配置
+     */
+    private static Properties loadSchemaFile(String fileName) {
+        Properties properties = new Properties();
+        String schemaName = fileName + ".schema";
+        try {
+            InputStream input = RowSchema.class.getClassLoader().getResourceAsStream(schemaName);
+            if (input == null && Files.isRegularFile(Paths.get(schemaName))) {
+                input = new FileInputStream(schemaName);
+            }
+            if (input != null) {
+                try (InputStreamReader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading schema file: " + schemaName, e);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,218 @@
+package config.datafeomcsvtxt.imp;
+
+import java.math.BigDecimal;
+
+/**
+ * 单元格文本转换
+ * 自动识别规则：空值和 null 为 null，empty 为空字符串，数字为 Integer/Long/Double（含小数点或指数时为 Double），
+ * true/false 为 Boolean，其余为字符串。
+ * 数字通过逐字符扫描识别，不依赖 NumberFormatException，非数字文本不会产生异常开销。
+ */
+final class ValueConverter {
+
+    // keyword 返回该对象表示 null 关键字
+    static final Object NULL_VALUE = new Object();
+    private static final long MULTMIN = Long.MIN_VALUE / 10;
+
+    private ValueConverter() {
+    }
+
+    /**
+     * 按自动识别规则转换
+     * @param value 已去除首尾空白的文本
+     * @param stripQuotes 是否去除包围整个值的引号（"" 还原为 "）
+     */
+    static Object convertAuto(String value, boolean stripQuotes) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        // 处理引号包围的值
+        if (stripQuotes && value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+            value = value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+
+        Object keyword = keyword(value);
+        if (keyword != null) {
+            return keyword == NULL_VALUE ? null : keyword;
+        }
+
+        Object number = parseNumber(value);
+        return number != null ? number : value;
+    }
+
+    /**
+     * 识别 null / empty / true / false（不区分大小写）
+     * @return NULL_VALUE、""、Boolean，不是关键字时返回 null
+     */
+    static Object keyword(String value) {
+        switch (value.length()) {
+            case 4:
+                if ("null".equalsIgnoreCase(value)) {
+                    return NULL_VALUE;
+                }
+                if ("true".equalsIgnoreCase(value)) {
+                    return Boolean.TRUE;
+                }
+                return null;
+            case 5:
+                if ("empty".equalsIgnoreCase(value)) {
+                    return "";
+                }
+                if ("false".equalsIgnoreCase(value)) {
+                    return Boolean.FALSE;
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 扫描十进制数字：[+-]? 数字 [. 数字] [e [+-]? 数字]，整数部分和小数部分至少有一位数字
+     * @return 不含小数点和指数时为 Integer 或 Long（超出 long 范围时为 Double），否则为 Double；不是数字时返回 null
+     */
+    static Number parseNumber(String value) {
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+            negative = value.charAt(i) == '-';
+            i++;
+        }
+
+        // 以负数累加，Long.MIN_VALUE 也能表示
+        long accumulated = 0;
+        boolean overflow = false;
+        int digits = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            int digit = c - '0';
+            if (!overflow) {
+                if (accumulated < MULTMIN || accumulated * 10 < Long.MIN_VALUE + digit) {
+                    overflow = true;
+                } else {
+                    accumulated = accumulated * 10 - digit;
+                }
+            }
+            digits++;
+            i++;
+        }
+
+        boolean decimal = false;
+        if (i < length && value.charAt(i) == '.') {
+            decimal = true;
+            i++;
+            while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+                digits++;
+                i++;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            decimal = true;
+            i++;
+            if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+                exponentDigits++;
+                i++;
+            }
+            if (exponentDigits == 0) {
+                return null;
+            }
+        }
+        if (i != length) {
+            return null;
+        }
+
+        if (decimal || overflow || (!negative && accumulated == Long.MIN_VALUE)) {
+            // 已确认格式合法，不会抛出异常
+            return Double.parseDouble(value);
+        }
+        long result = negative ? accumulated : -accumulated;
+        if (result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE) {
+            return (int) result;
+        }
+        return result;
+    }
+
+    /**
+     * 声明类型的转换：空值、null 为 null，empty 为空字符串（仅 string 类型），格式不符时抛出异常
+     * @param type string / int / long / double / decimal / boolean / auto
+     */
+    static Object convertDeclared(String value, String type, boolean stripQuotes) {
+        if ("auto".equals(type)) {
+            return convertAuto(value, stripQuotes);
+        }
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        if (stripQuotes && value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+            value = value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        if ("null".equalsIgnoreCase(value)) {
+            return null;
+        }
+
+        switch (type) {
+            case "string":
+                return "empty".equalsIgnoreCase(value) ? "" : value;
+            case "boolean":
+                if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+                    return Boolean.valueOf(value);
+                }
+                break;
+            case "decimal":
+                if (parseNumber(value) != null) {
+                    return new BigDecimal(value);
+                }
+                break;
+            default:
+                Number number = parseNumber(value);
+                if (number == null) {
+                    break;
+                }
+                if ("double".equals(type)) {
+                    return number.doubleValue();
+                }
+                if (number instanceof Double) {
+                    break;
+                }
+                if ("long".equals(type)) {
+                    return number.longValue();
+                }
+                if (number instanceof Integer) {
+                    return number;
+                }
+                break;
+        }
+        throw new IllegalArgumentException("值 '" + value + "' 不是 " + type + " 类型");
+    }
+
+    /**
+     * 是否为支持的类型名
+     */
+    static boolean isType(String type) {
+        switch (type) {
+            case "auto":
+            case "string":
+            case "int":
+            case "long":
+            case "double":
+            case "decimal":
+            case "boolean":
+                return true;
+            default:
+                return false;
+        }
+    }
+}
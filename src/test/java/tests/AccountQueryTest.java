@@ -2,11 +2,15 @@ package tests;
 
 import config.databaseUtils.DatabaseConnection;
 import config.databaseUtils.DatabaseOperations;
-import config.databaseUtils.impl.DatabaseConnectionImpl;
+import config.databaseUtils.ResultRow;
+import config.databaseUtils.ResultTable;
 import config.databaseUtils.impl.DatabaseOperationsImpl;
-import org.testng.annotations.BeforeMethod;
+import config.databaseUtils.impl.PooledDatabaseConnectionImpl;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import org.testng.annotations.AfterClass;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,12 +19,12 @@ public class AccountQueryTest {
 
     private DatabaseOperations databaseOperations;
 
-    @BeforeMethod
+    @BeforeClass
     public void setUp() {
-        // 创建数据库连接
-        DatabaseConnection connection = new DatabaseConnectionImpl();
+        // 使用套件共享的连接池，不再每个方法重新建立连接
+        DatabaseConnection connection = PooledDatabaseConnectionImpl.getInstance();
 
-        // 使用数据库连接创建 DatabaseOperations 实例
+        // 整个类共用一个 DatabaseOperations 实例（及其语句缓存），在 tearDown 中关闭
         databaseOperations = new DatabaseOperationsImpl(connection);
     }
 
@@ -48,6 +52,28 @@ public class AccountQueryTest {
         }
     }
 
+    @Test
+    public void testDuplicateColumnLabels() {
+        // 列名重复时，按列名取值应与逐列 put 到 HashMap 的结果一致（保留最后一列）
+        ResultTable results = databaseOperations.queryForTable("SELECT 1 AS id, 2 AS id, 'a' AS name");
+        Assert.assertEquals(results.size(), 1);
+
+        ResultRow row = results.get(0);
+        Map<String, Object> expected = new HashMap<>();
+        for (int i = 0; i < row.getColumns().size(); i++) {
+            expected.put(row.getColumns().labelAt(i), row.get(i));
+        }
+        System.out.println("重复列名查询结果: " + row);
+
+        Assert.assertEquals(row.size(), expected.size());
+        Assert.assertEquals(row, expected);
+        Assert.assertEquals(expected, row);
+        Assert.assertEquals(row.hashCode(), expected.hashCode());
+        Assert.assertEquals(new HashMap<>(row), expected);
+        Assert.assertEquals(((Number) row.get("id")).intValue(), 2);
+        Assert.assertEquals(((Number) row.get(0)).intValue(), 1);
+    }
+
     @Test
     public void testConnectionStatus() {
         if (databaseOperations != null) {
@@ -60,10 +86,11 @@ public class AccountQueryTest {
 
     @AfterClass
     public void tearDown() {
-        // 关闭数据库连接
-        if (databaseOperations != null && databaseOperations.isConnected()) {
+        // 关闭数据库操作：释放缓存的语句，套件共享的连接池不会被关闭
+        if (databaseOperations != null) {
             databaseOperations.close();
-            System.out.println("数据库连接已关闭");
         }
+        PooledDatabaseConnectionImpl pool = PooledDatabaseConnectionImpl.getInstance();
+        System.out.println("连接池状态: 空闲 " + pool.getIdleCount() + "，借出 " + pool.getActiveCount());
     }
 }
@@ -0,0 +1,52 @@
+package tests;
+
+import api.MappedCaseRunner;
+import config.HttpMetrics;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+/**
+ * 执行 config/api-mapping.yml 中映射的所有用例文件
+ * 所有文件的用例在 {@link MappedCaseRunner} 中并发执行，每个用例文件对应一条测试结果；
+ * 新增用例文件只需修改映射，不需要修改 testng.xml。
+ */
+@Epic("接口映射用例")
+public class ApiMappingTest {
+
+    private List<MappedCaseRunner.WorkbookResult> results;
+
+    @BeforeClass
+    public void runMappedWorkbooks() throws Exception {
+        results = new MappedCaseRunner().runAll();
+        // 映射用例的请求指标（按接口的耗时分布和各阶段耗时）
+        HttpMetrics.get().attach();
+    }
+
+    @DataProvider(name = "workbooks")
+    public Object[][] workbooks() {
+        Object[][] data = new Object[results.size()][];
+        for (int i = 0; i < data.length; i++) {
+            MappedCaseRunner.WorkbookResult result = results.get(i);
+            data[i] = new Object[]{result.getEndpoint().getFileName(), result};
+        }
+        return data;
+    }
+
+    @Test(dataProvider = "workbooks", description = "按映射执行用例文件")
+    @Description("用例文件中的所有用例都应通过")
+    public void testWorkbook(String fileName, MappedCaseRunner.WorkbookResult result) {
+        StringBuilder failures = new StringBuilder();
+        for (MappedCaseRunner.CaseResult caseResult : result.getCases()) {
+            if (!caseResult.isPassed()) {
+                failures.append('\n').append(caseResult);
+            }
+        }
+        Assert.assertEquals(result.getFailedCount(), 0, fileName + " 有失败的用例:" + failures);
+    }
+}
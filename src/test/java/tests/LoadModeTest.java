@@ -0,0 +1,90 @@
+package tests;
+
+import api.LoadReport;
+import api.LoadTest;
+import api.StubServer;
+import config.HttpOkUtil;
+import config.JsonComparator;
+import io.qameta.allure.Description;
+import io.qameta.allure.Epic;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * 压测模式自测：对本地桩服务执行开环、闭环压测，检查统计结果，并把结果作为 Allure 附件
+ */
+@Epic("压测模式")
+public class LoadModeTest {
+
+    private static final long DELAY_MILLIS = 5;
+
+    private StubServer stub;
+    private final JsonComparator comparator = new JsonComparator();
+
+    @BeforeClass
+    public void startStub() throws Exception {
+        stub = StubServer.start()
+                .respond("/ok", 200, "{\"code\":0,\"msg\":\"success\"}", DELAY_MILLIS)
+                .respond("/fail", 200, "{\"code\":1,\"msg\":\"error\"}", 0);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStub() {
+        stub.close();
+    }
+
+    @Test(description = "闭环压测")
+    @Description("固定并发循环请求，延迟不低于桩服务的处理耗时，没有错误")
+    public void testClosedModel() throws Exception {
+        LoadReport report = LoadTest.closed(8, Duration.ofSeconds(2))
+                .warmup(Duration.ofMillis(300))
+                .name("stub-closed")
+                .run(() -> check(HttpOkUtil.getQuery(stub.url("/ok"), Collections.emptyMap())));
+        report.attach();
+        report.write();
+
+        Assert.assertTrue(report.getRequests() > 0, report.toString());
+        Assert.assertEquals(report.getErrors(), 0, report.toString());
+        Assert.assertTrue(report.getLatencyMillis(50) >= DELAY_MILLIS, report.toString());
+        Assert.assertTrue(report.getLatencyMillis(99.9) >= report.getLatencyMillis(50), report.toString());
+    }
+
+    @Test(description = "开环压测")
+    @Description("按目标速率发出请求，完成的请求数接近 速率 x 时长")
+    public void testOpenModel() throws Exception {
+        LoadReport report = LoadTest.open(100, Duration.ofSeconds(2))
+                .name("stub-open")
+                .run(() -> check(HttpOkUtil.getQuery(stub.url("/ok"), Collections.emptyMap())));
+        report.attach();
+        report.write();
+
+        Assert.assertEquals(report.getErrors(), 0, report.toString());
+        Assert.assertEquals(report.getDropped(), 0, report.toString());
+        Assert.assertTrue(Math.abs(report.getRequests() - 200) <= 20, report.toString());
+    }
+
+    @Test(description = "错误统计")
+    @Description("响应与预期不符时记为错误，错误率为 100%")
+    public void testErrorRate() throws Exception {
+        LoadReport report = LoadTest.closed(2, Duration.ofSeconds(1))
+                .name("stub-errors")
+                .run(() -> check(HttpOkUtil.getQuery(stub.url("/fail"), Collections.emptyMap())));
+        report.attach();
+
+        Assert.assertTrue(report.getRequests() > 0, report.toString());
+        Assert.assertEquals(report.getErrors(), report.getRequests(), report.toString());
+        Assert.assertEquals(report.getErrorRate(), 1.0, 0.0001);
+        Assert.assertEquals(report.getErrorMessages().size(), 1, report.toString());
+    }
+
+    private void check(String response) {
+        if (!comparator.matches(response, "{\"code\":0,\"msg\":\"success\"}")) {
+            throw new AssertionError("响应与预期不符: " + response);
+        }
+    }
+}